@@ -0,0 +1,25 @@
+#!/usr/bin/env sh
+# Drives the same read load against the blocking and the reactive customer endpoints of a
+# running service and prints throughput and latency for both.
+#
+#   benchmarks/compare-blocking-reactive.sh
+#   BASE_URL=http://host:8080 CONCURRENCY=500 DURATION=60 benchmarks/compare-blocking-reactive.sh
+set -eu
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+CONCURRENCY="${CONCURRENCY:-200}"
+DURATION="${DURATION:-30}"
+WARMUP="${WARMUP:-10}"
+QUERY="${QUERY:-limit=50}"
+
+if [ ! -f "$DIR/target/benchmarks.jar" ]; then
+  (cd "$DIR/.." && mvn -B -q install -DskipTests)
+  (cd "$DIR" && mvn -B -q package)
+fi
+
+for path in customers reactive/customers; do
+  echo "== /$path"
+  java -cp "$DIR/target/benchmarks.jar" com.freddyerf.customer.benchmark.LoadDriver \
+    "$BASE_URL/$path?$QUERY" "$CONCURRENCY" "$DURATION" "$WARMUP"
+done
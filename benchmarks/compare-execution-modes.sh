@@ -0,0 +1,40 @@
+#!/usr/bin/env sh
+# Starts the packaged service once per execution mode (worker pool, then virtual threads) and
+# drives GET /customers at increasing concurrency, printing throughput and latency for each
+# step. Needs PostgreSQL running as configured in application.properties; stop any other
+# instance on port 8080 first.
+#
+#   benchmarks/compare-execution-modes.sh
+#   LEVELS="100 1000 5000" DURATION=60 benchmarks/compare-execution-modes.sh
+set -eu
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+APP="$DIR/../target/quarkus-app/quarkus-run.jar"
+BASE_URL="http://localhost:8080"
+LEVELS="${LEVELS:-50 200 800 2000}"
+DURATION="${DURATION:-30}"
+WARMUP="${WARMUP:-10}"
+QUERY="${QUERY:-limit=50}"
+
+(cd "$DIR/.." && mvn -B -q install -DskipTests)
+(cd "$DIR" && mvn -B -q package)
+
+for mode in WORKER VIRTUAL_THREADS; do
+  CUSTOMER_EXECUTION_MODE="$mode" java -jar "$APP" > "$DIR/target/app-$mode.log" 2>&1 &
+  pid=$!
+  until curl -sf "$BASE_URL/customers?limit=1" > /dev/null; do sleep 1; done
+
+  for concurrency in $LEVELS; do
+    echo "== mode=$mode"
+    java -cp "$DIR/target/benchmarks.jar" com.freddyerf.customer.benchmark.LoadDriver \
+      "$BASE_URL/customers?$QUERY" "$concurrency" "$DURATION" "$WARMUP"
+  done
+  if [ "$mode" = "VIRTUAL_THREADS" ]; then
+    echo "== pinning"
+    curl -s "$BASE_URL/customers/stats/pinning"
+    echo
+  fi
+
+  kill "$pid"
+  wait "$pid" || true
+done
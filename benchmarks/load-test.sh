@@ -0,0 +1,48 @@
+#!/usr/bin/env sh
+# Reproducible load test that never reaches restcountries.com: starts the country API stub and
+# the packaged service pointed at it, seeds generated customers, then runs each scenario and
+# prints throughput and p50/p99 latency. Needs PostgreSQL running as configured in
+# application.properties (e.g. docker compose up db); stop any other instance on port 8080 first.
+#
+#   benchmarks/load-test.sh
+#   ROWS=1000000 SCENARIOS="read-by-id by-country" CONCURRENCY=400 benchmarks/load-test.sh
+#   STUB_LATENCY_MS=300 STUB_ERROR_RATE=0.2 SCENARIOS=create-heavy benchmarks/load-test.sh
+set -eu
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+APP="$DIR/../target/quarkus-app/quarkus-run.jar"
+JAR="$DIR/target/benchmarks.jar"
+BASE_URL="http://localhost:8080"
+ROWS="${ROWS:-100000}"
+SCENARIOS="${SCENARIOS:-create-heavy read-by-id by-country full-listing}"
+CONCURRENCY="${CONCURRENCY:-200}"
+DURATION="${DURATION:-30}"
+WARMUP="${WARMUP:-10}"
+STUB_PORT="${STUB_PORT:-8089}"
+STUB_LATENCY_MS="${STUB_LATENCY_MS:-50}"
+STUB_ERROR_RATE="${STUB_ERROR_RATE:-0.01}"
+# REMOTE_ONLY sends every uncached lookup to the stub; TABLE_THEN_REMOTE only unknown codes
+LOOKUP_MODE="${LOOKUP_MODE:-REMOTE_ONLY}"
+
+(cd "$DIR/.." && mvn -B -q install -DskipTests)
+(cd "$DIR" && mvn -B -q package)
+
+java -cp "$JAR" com.freddyerf.customer.benchmark.CountryApiStubServer \
+  "$STUB_PORT" "$STUB_LATENCY_MS" "$STUB_ERROR_RATE" > "$DIR/target/stub.log" 2>&1 &
+stub=$!
+COUNTRY_API_BASE_URL="http://localhost:$STUB_PORT/v3.1/alpha/" COUNTRY_LOOKUP_MODE="$LOOKUP_MODE" \
+  java -jar "$APP" > "$DIR/target/app-load-test.log" 2>&1 &
+app=$!
+trap 'kill "$app" "$stub" 2> /dev/null || true' EXIT
+until curl -sf "$BASE_URL/customers?limit=1" > /dev/null; do sleep 1; done
+
+if [ "$ROWS" -gt 0 ]; then
+  echo "== seeding $ROWS customers"
+  java -cp "$JAR" com.freddyerf.customer.benchmark.DataGenerator "$BASE_URL" "$ROWS"
+fi
+
+for scenario in $SCENARIOS; do
+  echo "== $scenario"
+  java -cp "$JAR" com.freddyerf.customer.benchmark.LoadScenario \
+    "$scenario" "$BASE_URL" "$CONCURRENCY" "$DURATION" "$WARMUP"
+done
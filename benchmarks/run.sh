@@ -0,0 +1,24 @@
+#!/usr/bin/env sh
+# Builds the service and the benchmarks, runs them, and compares the results with
+# benchmarks/baseline.json when it exists. Everything runs offline.
+#
+#   benchmarks/run.sh                  run all benchmarks
+#   benchmarks/run.sh CustomerJson     run the benchmarks matching a regex
+#   UPDATE_BASELINE=1 benchmarks/run.sh  store the results as the new baseline
+set -eu
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+MAX_REGRESSION="${MAX_REGRESSION:-10}"
+
+(cd "$DIR/.." && mvn -B -q install -DskipTests)
+(cd "$DIR" && mvn -B -q package)
+
+java -jar "$DIR/target/benchmarks.jar" -rf json -rff "$DIR/target/jmh-result.json" "$@"
+
+if [ "${UPDATE_BASELINE:-0}" = "1" ]; then
+  cp "$DIR/target/jmh-result.json" "$DIR/baseline.json"
+  echo "Baseline updated"
+elif [ -f "$DIR/baseline.json" ]; then
+  java -cp "$DIR/target/benchmarks.jar" com.freddyerf.customer.benchmark.BenchmarkGate \
+    "$DIR/baseline.json" "$DIR/target/jmh-result.json" "$MAX_REGRESSION"
+fi
@@ -0,0 +1,83 @@
+#!/usr/bin/env sh
+# Seeds a generated dataset into the database of a running service and drives prefix and fuzzy
+# searches against GET /customers/search, printing throughput and latency for each mode.
+#
+#   benchmarks/search-benchmark.sh
+#   ROWS=5000000 CONCURRENCY=100 benchmarks/search-benchmark.sh
+#   SEED=0 benchmarks/search-benchmark.sh      # reuse the rows of a previous run
+#
+# Rows are inserted with SQL rather than through the API; the per-country counters are updated
+# alongside them. PSQL must run psql against the service's database (default: the compose db).
+set -eu
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+CONCURRENCY="${CONCURRENCY:-50}"
+DURATION="${DURATION:-30}"
+WARMUP="${WARMUP:-10}"
+ROWS="${ROWS:-1000000}"
+SEED="${SEED:-1}"
+PSQL="${PSQL:-docker compose exec -T db psql -q -v ON_ERROR_STOP=1 -U myuser -d customerdb}"
+
+if [ ! -f "$DIR/target/benchmarks.jar" ]; then
+  (cd "$DIR/.." && mvn -B -q install -DskipTests)
+  (cd "$DIR" && mvn -B -q package)
+fi
+
+if [ "$SEED" = "1" ]; then
+  echo "== seeding $ROWS customers"
+  # Ids start past both the highest id and the sequence, so they never collide with the
+  # running service's preallocated id block; the sequence is then moved past them.
+  $PSQL <<SQL
+WITH base AS (
+  SELECT GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM customer_seq)) AS id FROM customer
+), names AS (
+  SELECT ARRAY['James','Mary','John','Patricia','Robert','Jennifer','Michael','Linda','William','Elizabeth',
+               'David','Barbara','Richard','Susan','Joseph','Jessica','Thomas','Sarah','Carlos','Maria',
+               'Juan','Ana','Luis','Carmen','Jose','Rosa','Miguel','Lucia','Pedro','Isabel'] AS first,
+         ARRAY['Smith','Johnson','Williams','Brown','Jones','Garcia','Miller','Davis','Rodriguez','Martinez',
+               'Hernandez','Lopez','Gonzalez','Wilson','Anderson','Thomas','Taylor','Moore','Jackson','Martin',
+               'Perez','Sanchez','Ramirez','Torres','Flores','Rivera','Gomez','Diaz','Reyes','Cruz'] AS last,
+         ARRAY['US','DO','MX','ES','FR','CA'] AS country,
+         ARRAY['American','Dominican','Mexican','Spanish','French','Canadian'] AS demonym
+), inserted AS (
+  INSERT INTO customer (id, first_name, last_name, second_last_name, email, address, phone, country, demonym, version)
+  SELECT base.id + g,
+         names.first[1 + g % 30],
+         names.last[1 + (g / 30) % 30],
+         CASE WHEN g % 3 = 0 THEN names.last[1 + (g / 900) % 30] END,
+         lower(names.first[1 + g % 30] || '.' || names.last[1 + (g / 30) % 30]) || (base.id + g) || '@example.com',
+         g || ' Benchmark Avenue',
+         '555-' || lpad((g % 10000000)::text, 7, '0'),
+         names.country[1 + g % 6],
+         names.demonym[1 + g % 6],
+         0
+  FROM base, names, generate_series(1, $ROWS) g
+  RETURNING id, country
+), counted AS (
+  INSERT INTO country_stats (country, customers)
+  SELECT country, count(*) FROM inserted GROUP BY country
+  ON CONFLICT (country) DO UPDATE SET customers = country_stats.customers + EXCLUDED.customers
+)
+SELECT setval('customer_seq', (SELECT MAX(id) FROM inserted));
+ANALYZE customer;
+SQL
+fi
+
+URLS="$(mktemp)"
+trap 'rm -f "$URLS"' EXIT
+
+for mode in prefix fuzzy; do
+  if [ "$mode" = "prefix" ]; then
+    QUERIES="mar gonz rodri jose.t 555-00123 william"
+  else
+    QUERIES="gonzales rodrigues jenifer willaims hernandes patrica"
+  fi
+  : > "$URLS"
+  for q in $QUERIES; do
+    echo "$BASE_URL/customers/search?mode=$mode&limit=50&q=$q" >> "$URLS"
+  done
+  echo "== $mode"
+  java -cp "$DIR/target/benchmarks.jar" com.freddyerf.customer.benchmark.LoadDriver \
+    "@$URLS" "$CONCURRENCY" "$DURATION" "$WARMUP"
+done
@@ -0,0 +1,89 @@
+package com.freddyerf.customer.benchmark;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file against a baseline and fails when any benchmark regressed
+ * by more than the allowed percentage.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.freddyerf.customer.benchmark.BenchmarkGate baseline.json current.json [maxRegressionPercent]
+ * </pre>
+ */
+public final class BenchmarkGate {
+
+    private record Result(String mode, double score, String unit) {
+    }
+
+    private BenchmarkGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkGate <baseline.json> <current.json> [maxRegressionPercent]");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            Result after = entry.getValue();
+            if (before == null) {
+                System.out.printf("NEW   %-80s %12.3f %s%n", entry.getKey(), after.score(), after.unit());
+                continue;
+            }
+            // Throughput modes are better when higher, time modes when lower
+            boolean higherIsBetter = after.mode().equals("thrpt");
+            double change = (after.score() - before.score()) / before.score() * 100.0;
+            double regression = higherIsBetter ? -change : change;
+            boolean failed = regression > maxRegression;
+            if (failed) {
+                regressions++;
+            }
+            System.out.printf("%-5s %-80s %12.3f -> %12.3f %s (%+.1f%%)%n", failed ? "FAIL" : "OK",
+                    entry.getKey(), before.score(), after.score(), after.unit(), change);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, maxRegression);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file); JsonReader json = Json.createReader(reader)) {
+            JsonArray runs = json.readArray();
+            for (JsonObject run : runs.getValuesAs(JsonObject.class)) {
+                JsonObject metric = run.getJsonObject("primaryMetric");
+                results.put(key(run), new Result(run.getString("mode"),
+                        metric.getJsonNumber("score").doubleValue(), metric.getString("scoreUnit")));
+            }
+        }
+        return results;
+    }
+
+    private static String key(JsonObject run) {
+        String benchmark = run.getString("benchmark");
+        JsonObject params = run.getJsonObject("params");
+        if (params == null || params.isEmpty()) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        params.forEach((name, value) -> sorted.put(name, params.getString(name)));
+        return benchmark + sorted;
+    }
+}
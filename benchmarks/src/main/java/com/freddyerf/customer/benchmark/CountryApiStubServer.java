@@ -0,0 +1,70 @@
+package com.freddyerf.customer.benchmark;
+
+import com.freddyerf.customer.service.DemonymTable;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for the REST Countries {@code /v3.1/alpha/{code}?fields=demonyms} endpoint, so load tests
+ * never reach restcountries.com. Answers from the bundled demonym table after a fixed latency and
+ * fails a given fraction of requests with 503. Point the service at it with
+ * {@code COUNTRY_API_BASE_URL=http://localhost:<port>/v3.1/alpha/}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.freddyerf.customer.benchmark.CountryApiStubServer port [latencyMillis] [errorRate]
+ * </pre>
+ */
+public final class CountryApiStubServer {
+
+    private static final DemonymTable DEMONYMS = DemonymTable.fromClasspath(DemonymTable.RESOURCE);
+
+    private CountryApiStubServer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: CountryApiStubServer <port> [latencyMillis] [errorRate]");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        double errorRate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/v3.1/alpha/", exchange -> handle(exchange, latencyMillis, errorRate));
+        // A virtual thread per request, so the simulated latency never limits concurrency
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        System.out.printf("country API stub on port %d latency=%d ms errorRate=%.3f%n", port, latencyMillis, errorRate);
+    }
+
+    private static void handle(HttpExchange exchange, long latencyMillis, double errorRate) throws IOException {
+        try (exchange) {
+            Thread.sleep(latencyMillis);
+            String path = exchange.getRequestURI().getPath();
+            String demonym = DEMONYMS.lookup(path.substring(path.lastIndexOf('/') + 1));
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+            } else if (demonym == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                byte[] body = ("{\"demonyms\":{\"eng\":{\"f\":\"" + demonym + "\",\"m\":\"" + demonym + "\"}}}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.freddyerf.customer.benchmark;
+
+import com.freddyerf.customer.controller.CustomerCbor;
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.Page;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding cost of one listing page as JSON (JSON-B, as served today) and as CBOR, both written
+ * to a stream as the message body writers do. Payload sizes are printed at setup; run with
+ * {@code -prof gc} to compare allocation per page:
+ *
+ * <pre>
+ * benchmarks/run.sh CustomerEncoding -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerEncodingBenchmark {
+
+    @Param({"50", "500"})
+    int pageSize;
+
+    private Jsonb jsonb;
+    private Page<Customer> page;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        jsonb = JsonbBuilder.create();
+        List<Customer> customers = SampleCustomers.customers(pageSize);
+        customers.forEach(customer -> customer.setVersion(0L));
+        page = new Page<>(customers, customers.get(pageSize - 1).getId());
+        out = new ByteArrayOutputStream(1 << 20);
+        System.out.printf("%npayload bytes for %d customers: json=%d cbor=%d%n",
+                pageSize, jsonb.toJson(page).getBytes(StandardCharsets.UTF_8).length,
+                CustomerCbor.encode(page).length);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        jsonb.close();
+    }
+
+    @Benchmark
+    public int json() {
+        out.reset();
+        jsonb.toJson(page, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int cbor() throws IOException {
+        out.reset();
+        CustomerCbor.write(page, out);
+        return out.size();
+    }
+}
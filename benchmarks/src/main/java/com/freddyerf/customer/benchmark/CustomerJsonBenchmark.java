@@ -0,0 +1,68 @@
+package com.freddyerf.customer.benchmark;
+
+import com.freddyerf.customer.model.Customer;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-B (Yasson, as used by quarkus-resteasy-jsonb) cost of single customers and listings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerJsonBenchmark {
+
+    private static final Type CUSTOMER_LIST = new ArrayList<Customer>() { }.getClass().getGenericSuperclass();
+
+    @Param({"100", "10000"})
+    int listSize;
+
+    private Jsonb jsonb;
+    private Customer customer;
+    private List<Customer> customers;
+    private String customerJson;
+    private String customersJson;
+
+    @Setup
+    public void setUp() {
+        jsonb = JsonbBuilder.create();
+        customer = SampleCustomers.customer(1);
+        customers = SampleCustomers.customers(listSize);
+        customerJson = jsonb.toJson(customer);
+        customersJson = jsonb.toJson(customers);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        jsonb.close();
+    }
+
+    @Benchmark
+    public String serializeCustomer() {
+        return jsonb.toJson(customer);
+    }
+
+    @Benchmark
+    public Customer deserializeCustomer() {
+        return jsonb.fromJson(customerJson, Customer.class);
+    }
+
+    @Benchmark
+    public String serializeList() {
+        return jsonb.toJson(customers);
+    }
+
+    @Benchmark
+    public List<Customer> deserializeList() {
+        return jsonb.fromJson(customersJson, CUSTOMER_LIST);
+    }
+}
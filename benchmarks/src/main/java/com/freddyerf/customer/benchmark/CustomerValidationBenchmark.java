@@ -0,0 +1,57 @@
+package com.freddyerf.customer.benchmark;
+
+import com.freddyerf.customer.model.Customer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation cost of one {@link Customer}, valid and invalid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerValidationBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private Customer valid;
+    private Customer invalid;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory();
+        validator = factory.getValidator();
+        valid = SampleCustomers.customer(1);
+        invalid = SampleCustomers.customer(2);
+        invalid.setEmail("not-an-email");
+        invalid.setFirstName(" ");
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Customer>> validateValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Customer>> validateInvalid() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,115 @@
+package com.freddyerf.customer.benchmark;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.service.CustomerCsv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Seeds a running service with generated customers spread evenly across countries. The rows are
+ * generated while they are sent, as one CSV stream to {@code POST /admin/customers/import}, so any
+ * number of them can be loaded without building the file first. Emails carry the start time of
+ * the run, so seeding twice never produces duplicates.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.freddyerf.customer.benchmark.DataGenerator baseUrl count
+ * </pre>
+ */
+public final class DataGenerator {
+
+    private static final String HEADER = "firstName,secondName,lastName,secondLastName,email,address,phone,country\n";
+
+    private DataGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: DataGenerator <baseUrl> <count>");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0] + "/admin/customers/import");
+        long count = Long.parseLong(args[1]);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofHours(1))
+                .header("Content-Type", "text/csv")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new GeneratedCsv(count, run)))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("status=%d seconds=%.1f rows/s=%.0f%n", response.statusCode(), seconds, count / seconds);
+        System.out.println(response.body().length() > 500 ? response.body().substring(0, 500) + "..." : response.body());
+        if (response.statusCode() != 200) {
+            System.exit(1);
+        }
+    }
+
+    // CSV rows produced on demand, one record at a time
+    private static final class GeneratedCsv extends InputStream {
+
+        private final long count;
+        private final String run;
+        private long next;
+        private byte[] buffer = HEADER.getBytes(StandardCharsets.UTF_8);
+        private int position;
+
+        GeneratedCsv(long count, String run) {
+            this.count = count;
+            this.run = run;
+        }
+
+        @Override
+        public int read() {
+            return fill() ? buffer[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.length - position);
+            System.arraycopy(buffer, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() {
+            while (position == buffer.length) {
+                if (next == count) {
+                    return false;
+                }
+                Customer customer = SampleCustomers.newCustomer(++next);
+                StringWriter row = new StringWriter(160);
+                try {
+                    CustomerCsv.writeRecord(row, Arrays.asList(customer.getFirstName(), customer.getSecondName(),
+                            customer.getLastName(), customer.getSecondLastName(),
+                            "customer" + next + "." + run + "@load.example.com",
+                            customer.getAddress(), customer.getPhone(), customer.getCountry()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                buffer = row.toString().getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return true;
+        }
+    }
+}
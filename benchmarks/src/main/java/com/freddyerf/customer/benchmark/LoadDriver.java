@@ -0,0 +1,123 @@
+package com.freddyerf.customer.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load generator. Keeps a fixed number of requests in flight against one
+ * URL for a fixed duration and prints throughput and latency percentiles.
+ * An argument of the form {@code @file} instead cycles through the URLs listed in the file,
+ * one per line, so a run can mix several queries.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.freddyerf.customer.benchmark.LoadDriver url|@file concurrency seconds [warmupSeconds]
+ * </pre>
+ */
+public final class LoadDriver {
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: LoadDriver <url|@file> <concurrency> <seconds> [warmupSeconds]");
+            System.exit(2);
+        }
+        List<URI> uris = args[0].startsWith("@")
+                ? Files.readAllLines(Path.of(args[0].substring(1))).stream()
+                        .filter(line -> !line.isBlank())
+                        .map(line -> URI.create(line.strip()))
+                        .toList()
+                : List.of(URI.create(args[0]));
+        int concurrency = Integer.parseInt(args[1]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        Duration warmup = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 5);
+
+        HttpClient client = client();
+        HttpRequest[] requests = uris.stream()
+                .map(uri -> get(uri).build())
+                .toArray(HttpRequest[]::new);
+        IntFunction<HttpRequest> request = n -> requests[n % requests.length];
+
+        run(client, request, concurrency, warmup);
+        Result result = run(client, request, concurrency, duration);
+
+        System.out.printf("url=%s concurrency=%d seconds=%d%n",
+                uris.size() == 1 ? uris.get(0) : args[0] + " (" + uris.size() + " urls)", concurrency, duration.toSeconds());
+        report(result, duration);
+    }
+
+    static HttpClient client() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    static HttpRequest.Builder get(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET();
+    }
+
+    static void report(Result result, Duration duration) {
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n",
+                result.requests(), result.errors(), result.requests() / (double) duration.toSeconds());
+        System.out.printf("latency p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0));
+    }
+
+    // Sends request.apply(0), request.apply(1), ... keeping concurrency of them in flight until the duration is over
+    static Result run(HttpClient client, IntFunction<HttpRequest> request, int concurrency, Duration duration)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long end = System.nanoTime() + duration.toNanos();
+
+        for (int sent = 0; System.nanoTime() < end; sent = (sent + 1) & Integer.MAX_VALUE) {
+            inFlight.acquire();
+            long start = System.nanoTime();
+            client.sendAsync(request.apply(sent), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        } else {
+                            latencies.add(System.nanoTime() - start);
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return new Result(sorted, errors.get());
+    }
+
+    record Result(long[] latenciesNanos, long errors) {
+
+        long requests() {
+            return latenciesNanos.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
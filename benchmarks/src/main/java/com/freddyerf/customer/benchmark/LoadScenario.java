@@ -0,0 +1,130 @@
+package com.freddyerf.customer.benchmark;
+
+import com.freddyerf.customer.model.Customer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives one request mix against a seeded service with {@link LoadDriver} and prints throughput
+ * and latency percentiles. Ids for the reads are sampled from the listing before the run.
+ *
+ * <ul>
+ *   <li>{@code create-heavy}: 80% {@code POST /customers}, 20% {@code GET /customers/{id}}</li>
+ *   <li>{@code read-by-id}: {@code GET /customers/{id}}</li>
+ *   <li>{@code by-country}: {@code GET /customers/{country}}, from a random cursor</li>
+ *   <li>{@code full-listing}: {@code GET /customers} in pages of 500, from a random cursor</li>
+ * </ul>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.freddyerf.customer.benchmark.LoadScenario scenario baseUrl concurrency seconds [warmupSeconds]
+ * </pre>
+ */
+public final class LoadScenario {
+
+    private static final String[] COUNTRIES = {"US", "DO", "MX", "CA", "ES", "FR", "DE", "BR", "AR", "CO"};
+    private static final int SAMPLE_PAGES = 20;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\":(\\d+)");
+
+    // Numbers the created customers across warmup and measurement, so every email is new
+    private static final AtomicLong CREATED = new AtomicLong();
+
+    private LoadScenario() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: LoadScenario <create-heavy|read-by-id|by-country|full-listing> <baseUrl> <concurrency> <seconds> [warmupSeconds]");
+            System.exit(2);
+        }
+        String scenario = args[0];
+        String baseUrl = args[1];
+        int concurrency = Integer.parseInt(args[2]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[3]));
+        Duration warmup = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 5);
+
+        HttpClient client = LoadDriver.client();
+        long[] ids = sampleIds(client, baseUrl);
+        if (ids.length == 0) {
+            System.err.println("No customers found at " + baseUrl + "; seed the service with DataGenerator first");
+            System.exit(1);
+        }
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        IntFunction<HttpRequest> requests = switch (scenario) {
+            case "create-heavy" -> n -> n % 5 == 4 ? byId(baseUrl, ids) : create(baseUrl, run, CREATED.incrementAndGet());
+            case "read-by-id" -> n -> byId(baseUrl, ids);
+            case "by-country" -> n -> get(baseUrl + "/customers/" + COUNTRIES[n % COUNTRIES.length]
+                    + "?limit=50&after=" + (randomId(ids) - 1));
+            case "full-listing" -> n -> get(baseUrl + "/customers?limit=500&after=" + (randomId(ids) - 1));
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+
+        LoadDriver.run(client, requests, concurrency, warmup);
+        LoadDriver.Result result = LoadDriver.run(client, requests, concurrency, duration);
+
+        System.out.printf("scenario=%s concurrency=%d seconds=%d sampledIds=%d%n",
+                scenario, concurrency, duration.toSeconds(), ids.length);
+        LoadDriver.report(result, duration);
+    }
+
+    // Ids of the first pages of the listing, read as id-only projections
+    private static long[] sampleIds(HttpClient client, String baseUrl) throws Exception {
+        long[] ids = new long[0];
+        long after = 0;
+        for (int page = 0; page < SAMPLE_PAGES; page++) {
+            String body = client.send(get(baseUrl + "/customers?fields=id&limit=500&after=" + after),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            Matcher id = ID.matcher(body);
+            int found = ids.length;
+            ids = Arrays.copyOf(ids, found + 500);
+            while (id.find()) {
+                ids[found++] = Long.parseLong(id.group(1));
+            }
+            ids = Arrays.copyOf(ids, found);
+            Matcher next = NEXT_CURSOR.matcher(body);
+            if (!next.find()) {
+                break;
+            }
+            after = Long.parseLong(next.group(1));
+        }
+        return ids;
+    }
+
+    private static long randomId(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static HttpRequest byId(String baseUrl, long[] ids) {
+        return get(baseUrl + "/customers/" + randomId(ids));
+    }
+
+    private static HttpRequest get(String url) {
+        return LoadDriver.get(URI.create(url)).build();
+    }
+
+    private static HttpRequest create(String baseUrl, String run, long n) {
+        Customer customer = SampleCustomers.newCustomer(n);
+        String json = String.format(Locale.ROOT,
+                "{\"firstName\":\"%s\",\"lastName\":\"%s\",\"email\":\"create%d.%s@load.example.com\","
+                        + "\"address\":\"%s\",\"phone\":\"%s\",\"country\":\"%s\"}",
+                customer.getFirstName(), customer.getLastName(), n, run,
+                customer.getAddress(), customer.getPhone(), customer.getCountry());
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/customers"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.freddyerf.customer.benchmark;
+
+import com.freddyerf.customer.model.Customer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic customer fixtures, so every run benchmarks the same data.
+ */
+public final class SampleCustomers {
+
+    private static final String[] COUNTRIES = {"US", "DO", "MX", "CA", "ES", "FR", "DE", "BR", "AR", "CO"};
+    private static final String[] DEMONYMS = {"American", "Dominican", "Mexican", "Canadian", "Spanish",
+            "French", "German", "Brazilian", "Argentine", "Colombian"};
+
+    private SampleCustomers() {
+    }
+
+    public static Customer customer(long id) {
+        int country = (int) (id % COUNTRIES.length);
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName("Customer" + id);
+        customer.setSecondName(id % 2 == 0 ? "Maria" : null);
+        customer.setLastName("Lastname" + id);
+        customer.setSecondLastName(id % 3 == 0 ? "Perez" : null);
+        customer.setEmail("customer" + id + "@example.com");
+        customer.setAddress(id + " Main Street, Apt " + (id % 100));
+        customer.setPhone("555-" + (1000 + id % 9000));
+        customer.setCountry(COUNTRIES[country]);
+        customer.setDemonym(DEMONYMS[country]);
+        return customer;
+    }
+
+    public static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            customers.add(customer(1 + random.nextInt(1_000_000)));
+        }
+        return customers;
+    }
+
+    // A new, unsaved customer as it arrives in a POST body
+    public static Customer newCustomer(long n) {
+        Customer customer = customer(n);
+        customer.setId(null);
+        customer.setDemonym(null);
+        return customer;
+    }
+}
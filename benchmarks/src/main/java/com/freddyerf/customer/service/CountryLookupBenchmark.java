@@ -0,0 +1,50 @@
+package com.freddyerf.customer.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each way {@link CountryService} can answer a demonym lookup without the network:
+ * parsing a REST Countries payload, the bundled table and a demonym cache hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CountryLookupBenchmark {
+
+    // Body of GET https://restcountries.com/v3.1/alpha/US?fields=demonyms
+    static final String PAYLOAD = "{\"demonyms\":{\"eng\":{\"f\":\"American\",\"m\":\"American\"},"
+            + "\"fra\":{\"f\":\"Américaine\",\"m\":\"Américain\"}}}";
+
+    private DemonymTable table;
+    private DemonymCache cache;
+
+    @Setup
+    public void setUp() throws Exception {
+        table = DemonymTable.fromClasspath(DemonymTable.RESOURCE);
+        cache = new DemonymCache(512, Duration.ofDays(7), Duration.ofHours(1));
+        cache.get("US", code -> RestCountriesClient.parseMaleDemonym(PAYLOAD));
+    }
+
+    @Benchmark
+    public String parsePayload() {
+        return RestCountriesClient.parseMaleDemonym(PAYLOAD);
+    }
+
+    @Benchmark
+    public String tableLookup() {
+        return table.lookup("US");
+    }
+
+    @Benchmark
+    public String cacheHit() throws Exception {
+        return cache.get("US", code -> {
+            throw new IllegalStateException("cache miss");
+        });
+    }
+}
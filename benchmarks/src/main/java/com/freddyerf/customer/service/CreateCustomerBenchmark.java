@@ -0,0 +1,99 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.benchmark.SampleCustomers;
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.CustomerChange;
+import com.freddyerf.customer.repository.CountryStatsRepository;
+import com.freddyerf.customer.repository.CustomerChangeRepository;
+import com.freddyerf.customer.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CustomerService#createCustomer} with in-memory repositories and the bundled demonym table.
+ * Transaction demarcation needs a running Quarkus application, so the benchmark calls the
+ * two halves createCustomer runs around it: lookup, enrichment and validation, then the inserts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateCustomerBenchmark {
+
+    static class InMemoryCustomerRepository extends CustomerRepository {
+        private long nextId;
+
+        @Override
+        public void persist(Customer customer) {
+            customer.setId(++nextId);
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+
+    static class InMemoryCountryStatsRepository extends CountryStatsRepository {
+        @Override
+        public void addCustomers(String country, long delta) {
+        }
+    }
+
+    static class InMemoryCustomerChangeRepository extends CustomerChangeRepository {
+        @Override
+        public void persist(CustomerChange change) {
+        }
+    }
+
+    private ValidatorFactory validatorFactory;
+    private CountryService countryService;
+    private CustomerService customerService;
+    private long n;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory();
+
+        // Meters record into an in-memory registry, so their cost is part of the measurement
+        CustomerMetrics metrics = new CustomerMetrics(new SimpleMeterRegistry());
+
+        countryService = new CountryService();
+        countryService.lookupMode = DemonymLookupMode.TABLE_ONLY;
+        countryService.metrics = metrics;
+
+        customerService = new CustomerService();
+        customerService.customerRepository = new InMemoryCustomerRepository();
+        customerService.countryStatsRepository = new InMemoryCountryStatsRepository();
+        customerService.changeRepository = new InMemoryCustomerChangeRepository();
+        customerService.jsonb = JsonbBuilder.create();
+        customerService.emailFilter = new CustomerEmailFilter();
+        customerService.countryService = countryService;
+        customerService.validator = validatorFactory.getValidator();
+        customerService.metrics = metrics;
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Customer createCustomer() {
+        Customer customer = SampleCustomers.newCustomer(++n);
+        customerService.prepareNewCustomer(customer, countryService.getDemonymByCountryCode(customer.getCountry()));
+        customerService.insertCustomer(customer);
+        return customer;
+    }
+}
@@ -0,0 +1,20 @@
+#!/usr/bin/env sh
+# Regenerates src/main/resources/countries/demonyms.tsv from the REST Countries API.
+# The table is committed so builds and pods never depend on the API being reachable;
+# run this again only when the upstream country data changes.
+#
+# Requires curl and jq.
+set -eu
+
+OUT="$(dirname "$0")/../src/main/resources/countries/demonyms.tsv"
+API_URL="${API_URL:-https://restcountries.com/v3.1/all?fields=cca2,demonyms}"
+
+{
+  echo "# ISO 3166-1 alpha-2 code -> English male demonym, as served by restcountries.com."
+  echo "# Generated by scripts/generate-demonyms.sh, do not edit by hand."
+  curl -fsS "$API_URL" \
+    | jq -r '.[] | select(.demonyms.eng.m != null and .demonyms.eng.m != "") | "\(.cca2)\t\(.demonyms.eng.m)"' \
+    | LC_ALL=C sort
+} > "$OUT.tmp"
+mv "$OUT.tmp" "$OUT"
+echo "Wrote $(grep -vc '^#' "$OUT") entries to $OUT"
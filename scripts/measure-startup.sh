@@ -0,0 +1,97 @@
+#!/usr/bin/env sh
+# Measures how fast the service becomes ready and how much memory it holds, packaged for the JVM
+# and as a native image. Each run starts the application, polls GET /q/health/ready until it
+# answers 200, reads the resident set size, sends a few listing requests and reads it again.
+# "started" is what Quarkus logs, "ready" is measured from launching the process until the
+# readiness probe passes. Needs PostgreSQL running as configured in application.properties
+# (e.g. docker-compose up -d db), GraalVM or Docker for the native build, and Linux for /proc.
+# Stop any other instance on port 8080 first.
+#
+#   scripts/measure-startup.sh
+#   MODES=native RUNS=10 SKIP_BUILD=1 scripts/measure-startup.sh
+#   NATIVE_ARGS=-Dquarkus.native.container-build=true scripts/measure-startup.sh
+set -eu
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BASE_URL="http://localhost:8080"
+MODES="${MODES:-jvm native}"
+RUNS="${RUNS:-5}"
+REQUESTS="${REQUESTS:-200}"
+TIMEOUT="${TIMEOUT:-60}"
+NATIVE_ARGS="${NATIVE_ARGS:-}"
+LOGS="$ROOT/target/startup"
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+  for mode in $MODES; do
+    case "$mode" in
+      jvm) (cd "$ROOT" && mvn -B -q package -DskipTests) ;;
+      native) (cd "$ROOT" && mvn -B -q package -DskipTests -Dnative $NATIVE_ARGS) ;;
+      *) echo "Unknown mode: $mode" >&2; exit 1 ;;
+    esac
+  done
+fi
+mkdir -p "$LOGS"
+
+now_ms() {
+  echo $(($(date +%s%N) / 1000000))
+}
+
+rss_mib() {
+  awk '/^VmRSS:/ { printf "%.1f", $2 / 1024 }' "/proc/$1/status"
+}
+
+RESULTS="$LOGS/results.tsv"
+: > "$RESULTS"
+for mode in $MODES; do
+  for run in $(seq 1 "$RUNS"); do
+    log="$LOGS/$mode-$run.log"
+    start=$(now_ms)
+    if [ "$mode" = jvm ]; then
+      java ${JAVA_OPTS:-} -jar "$ROOT/target/quarkus-app/quarkus-run.jar" > "$log" 2>&1 &
+    else
+      "$(ls "$ROOT"/target/*-runner)" > "$log" 2>&1 &
+    fi
+    pid=$!
+
+    until curl -sf -o /dev/null "$BASE_URL/q/health/ready"; do
+      if ! kill -0 "$pid" 2> /dev/null || [ $(($(now_ms) - start)) -gt $((TIMEOUT * 1000)) ]; then
+        echo "$mode run $run did not become ready, see $log" >&2
+        kill "$pid" 2> /dev/null || true
+        exit 1
+      fi
+      sleep 0.01
+    done
+    ready=$(($(now_ms) - start))
+    rss_ready=$(rss_mib "$pid")
+
+    i=0
+    while [ "$i" -lt "$REQUESTS" ]; do
+      curl -sf -o /dev/null "$BASE_URL/customers?limit=50"
+      i=$((i + 1))
+    done
+    rss_loaded=$(rss_mib "$pid")
+
+    kill "$pid"
+    wait "$pid" || true
+    started=$(sed -n 's/.* started in \([0-9.]*\)s.*/\1/p' "$log" | head -n 1)
+    started_ms=$(awk -v s="${started:-0}" 'BEGIN { printf "%d", s * 1000 }')
+    printf '%s\t%s\t%s\t%s\t%s\t%s\n' "$mode" "$run" "$started_ms" "$ready" "$rss_ready" "$rss_loaded" >> "$RESULTS"
+    printf '%-6s run %-3s started %5s ms  ready %5s ms  rss %7s MiB  after %s requests %7s MiB\n' \
+      "$mode" "$run" "$started_ms" "$ready" "$rss_ready" "$REQUESTS" "$rss_loaded"
+  done
+done
+
+echo
+echo "== medians"
+for mode in $MODES; do
+  awk -F '\t' -v mode="$mode" '
+    $1 == mode { n++; started[n] = $3; ready[n] = $4; rss[n] = $5; loaded[n] = $6 }
+    function median(a,   i, j, t) {
+      for (i = 2; i <= n; i++) for (j = i; j > 1 && a[j - 1] > a[j]; j--) { t = a[j]; a[j] = a[j - 1]; a[j - 1] = t }
+      return n % 2 ? a[(n + 1) / 2] : (a[n / 2] + a[n / 2 + 1]) / 2
+    }
+    END {
+      if (n) printf "%-6s started %5d ms  ready %5d ms  rss %7.1f MiB  loaded %7.1f MiB\n",
+        mode, median(started), median(ready), median(rss), median(loaded)
+    }' "$RESULTS"
+done
@@ -0,0 +1,91 @@
+package com.freddyerf.customer.controller;
+
+import com.freddyerf.customer.model.ImportResult;
+import com.freddyerf.customer.service.CustomerBulkService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+/**
+ * Bulk loads in and out of the customer table through PostgreSQL {@code COPY}, for migrations
+ * and data-warehouse loads. Each format has its own method, selected by Content-Type or Accept.
+ */
+@Path("/admin/customers")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "customer-admin", description = "Bulk import and export of customers")
+public class AdminCustomerController {
+
+    static final String TEXT_CSV = "text/csv";
+
+    @Inject
+    CustomerBulkService customerBulkService;
+
+    @POST
+    @Path("/import")
+    @Consumes(TEXT_CSV)
+    @Operation(summary = "Import customers from CSV", description = "Creates a customer per CSV record. The header row names the customer field of each column; id, demonym and version columns are ignored, so an export can be imported again. Demonyms are resolved once per country, and invalid records are reported without stopping the load.")
+    @APIResponse(responseCode = "200", description = "Number of customers created and rejected records",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ImportResult.class)))
+    @APIResponse(responseCode = "400", description = "The header names a column that is not a customer field")
+
+    public Response importCsv(InputStream body) throws IOException {
+        try {
+            return Response.ok(customerBulkService.importCsv(reader(body))).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+        }
+    }
+
+    @POST
+    @Path("/import")
+    @Consumes(CustomerController.APPLICATION_NDJSON)
+    @Operation(summary = "Import customers from newline-delimited JSON", description = "Creates a customer per line, each in the format accepted by POST /customers. Demonyms are resolved once per country, and invalid lines are reported without stopping the load.")
+    @APIResponse(responseCode = "200", description = "Number of customers created and rejected records",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ImportResult.class)))
+
+    public Response importNdjson(InputStream body) {
+        return Response.ok(customerBulkService.importNdjson(reader(body))).build();
+    }
+
+    @GET
+    @Path("/export")
+    @Produces(TEXT_CSV)
+    @Operation(summary = "Export all customers as CSV", description = "Streams every customer, ordered by ID, straight from the database as CSV with a header row.")
+    @APIResponse(responseCode = "200", description = "One customer per record")
+
+    public Response exportCsv() {
+        StreamingOutput body = customerBulkService::exportCsv;
+        return Response.ok(body).build();
+    }
+
+    @GET
+    @Path("/export")
+    @Produces(CustomerController.APPLICATION_NDJSON)
+    @Operation(summary = "Export all customers as newline-delimited JSON", description = "Streams every customer, ordered by ID, straight from the database as one JSON document per line.")
+    @APIResponse(responseCode = "200", description = "One customer per line")
+
+    public Response exportNdjson() {
+        StreamingOutput body = customerBulkService::exportNdjson;
+        return Response.ok(body).build();
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+    }
+}
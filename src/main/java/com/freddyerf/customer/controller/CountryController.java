@@ -0,0 +1,36 @@
+package com.freddyerf.customer.controller;
+
+import com.freddyerf.customer.service.CountryService;
+import com.freddyerf.customer.service.DemonymCache;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/countries")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "country", description = "Country lookups used to enrich customers")
+public class CountryController {
+
+    @Inject
+    CountryService countryService;
+
+    @GET
+    @Path("/cache/stats")
+    @Operation(summary = "Get demonym cache statistics", description = "Returns hit, miss and load-time counters of the demonym cache.")
+    @APIResponse(responseCode = "200", description = "Demonym cache statistics",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = DemonymCache.Stats.class)))
+
+    public Response getCacheStats() {
+        return Response.ok(countryService.getCacheStats()).build();
+    }
+}
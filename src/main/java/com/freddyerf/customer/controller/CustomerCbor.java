@@ -0,0 +1,265 @@
+package com.freddyerf.customer.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.Page;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CBOR (RFC 8949) encoding of customers and customer pages, the binary alternative to the JSON
+ * listings. The document has the same shape and property names as the JSON one, null properties
+ * are omitted, and customer properties always come in declaration order. Every property is
+ * written by hand rather than discovered by reflection, so the encoding only changes when this
+ * class does, and a page is encoded straight into the response through a 1 KB buffer, with no
+ * intermediate objects and without holding the whole document in memory.
+ */
+public final class CustomerCbor {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    private static final int UNSIGNED = 0x00;
+    private static final int NEGATIVE = 0x20;
+    private static final int TEXT = 0x60;
+    private static final int ARRAY = 0x80;
+    private static final int MAP = 0xa0;
+    private static final int FALSE = 0xf4;
+    private static final int TRUE = 0xf5;
+    private static final int NULL = 0xf6;
+
+    private static final byte[] ITEMS = key("items");
+    private static final byte[] NEXT_CURSOR = key("nextCursor");
+    private static final byte[] ID = key("id");
+    private static final byte[] FIRST_NAME = key("firstName");
+    private static final byte[] SECOND_NAME = key("secondName");
+    private static final byte[] LAST_NAME = key("lastName");
+    private static final byte[] SECOND_LAST_NAME = key("secondLastName");
+    private static final byte[] EMAIL = key("email");
+    private static final byte[] ADDRESS = key("address");
+    private static final byte[] PHONE = key("phone");
+    private static final byte[] COUNTRY = key("country");
+    private static final byte[] DEMONYM = key("demonym");
+    private static final byte[] VERSION = key("version");
+
+    private CustomerCbor() {
+    }
+
+    /**
+     * @param type The type of a response entity.
+     * @return Whether {@link #write} can encode it.
+     */
+    public static boolean supports(Class<?> type) {
+        return Page.class.isAssignableFrom(type) || Customer.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type) || List.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Encodes a page, customer, projected customer map or list of them.
+     *
+     * @param value The value to encode.
+     * @return The CBOR document.
+     * @throws IllegalArgumentException if the value contains a type that has no encoding.
+     */
+    public static byte[] encode(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(value, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a value as {@link #encode} does, straight into a stream.
+     *
+     * @param value The value to encode.
+     * @param out The stream to write to; it is not closed.
+     */
+    public static void write(Object value, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(out);
+        encoder.value(value);
+        encoder.flush();
+    }
+
+    private static byte[] key(String name) {
+        return encode(name);
+    }
+
+    // Encodes into a small buffer that is written to the stream whenever it fills up. An encoder
+    // is created per document: on virtual threads a thread-local one would be per request anyway.
+    private static final class Encoder {
+
+        private static final int BUFFER_SIZE = 1024;
+
+        private final OutputStream out;
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private int size;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        void value(Object value) throws IOException {
+            if (value == null) {
+                put(NULL);
+            } else if (value instanceof String text) {
+                text(text);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                integer(((Number) value).longValue());
+            } else if (value instanceof Boolean bool) {
+                put(bool ? TRUE : FALSE);
+            } else if (value instanceof Customer customer) {
+                customer(customer);
+            } else if (value instanceof Page<?> page) {
+                page(page);
+            } else if (value instanceof List<?> list) {
+                head(ARRAY, list.size());
+                for (Object item : list) {
+                    value(item);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                head(MAP, map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    text(String.valueOf(entry.getKey()));
+                    value(entry.getValue());
+                }
+            } else {
+                throw new IllegalArgumentException("No CBOR encoding for " + value.getClass().getName());
+            }
+        }
+
+        private void page(Page<?> page) throws IOException {
+            head(MAP, page.nextCursor() == null ? 1 : 2);
+            raw(ITEMS);
+            value(page.items());
+            if (page.nextCursor() != null) {
+                raw(NEXT_CURSOR);
+                integer(page.nextCursor());
+            }
+        }
+
+        private void customer(Customer c) throws IOException {
+            int fields = count(c.getId()) + count(c.getFirstName()) + count(c.getSecondName()) + count(c.getLastName())
+                    + count(c.getSecondLastName()) + count(c.getEmail()) + count(c.getAddress()) + count(c.getPhone())
+                    + count(c.getCountry()) + count(c.getDemonym()) + count(c.getVersion());
+            head(MAP, fields);
+            integerField(ID, c.getId());
+            textField(FIRST_NAME, c.getFirstName());
+            textField(SECOND_NAME, c.getSecondName());
+            textField(LAST_NAME, c.getLastName());
+            textField(SECOND_LAST_NAME, c.getSecondLastName());
+            textField(EMAIL, c.getEmail());
+            textField(ADDRESS, c.getAddress());
+            textField(PHONE, c.getPhone());
+            textField(COUNTRY, c.getCountry());
+            textField(DEMONYM, c.getDemonym());
+            integerField(VERSION, c.getVersion());
+        }
+
+        private static int count(Object property) {
+            return property == null ? 0 : 1;
+        }
+
+        private void textField(byte[] key, String value) throws IOException {
+            if (value != null) {
+                raw(key);
+                text(value);
+            }
+        }
+
+        private void integerField(byte[] key, Long value) throws IOException {
+            if (value != null) {
+                raw(key);
+                integer(value);
+            }
+        }
+
+        void integer(long value) throws IOException {
+            if (value >= 0) {
+                head(UNSIGNED, value);
+            } else {
+                head(NEGATIVE, -1 - value);
+            }
+        }
+
+        // ASCII, the common case, is copied char by char without encoding the string first
+        void text(String value) throws IOException {
+            int length = value.length();
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                ascii = value.charAt(i) < 0x80;
+            }
+            if (!ascii) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                head(TEXT, utf8.length);
+                raw(utf8);
+                return;
+            }
+            head(TEXT, length);
+            for (int i = 0; i < length; i++) {
+                if (size == bytes.length) {
+                    flush();
+                }
+                bytes[size++] = (byte) value.charAt(i);
+            }
+        }
+
+        private void head(int major, long argument) throws IOException {
+            ensure(9);
+            if (argument < 24) {
+                bytes[size++] = (byte) (major | argument);
+            } else if (argument <= 0xff) {
+                bytes[size++] = (byte) (major | 24);
+                bytes[size++] = (byte) argument;
+            } else if (argument <= 0xffff) {
+                bytes[size++] = (byte) (major | 25);
+                bytes[size++] = (byte) (argument >>> 8);
+                bytes[size++] = (byte) argument;
+            } else if (argument <= 0xffffffffL) {
+                bytes[size++] = (byte) (major | 26);
+                for (int shift = 24; shift >= 0; shift -= 8) {
+                    bytes[size++] = (byte) (argument >>> shift);
+                }
+            } else {
+                bytes[size++] = (byte) (major | 27);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    bytes[size++] = (byte) (argument >>> shift);
+                }
+            }
+        }
+
+        private void put(int b) throws IOException {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        private void raw(byte[] encoded) throws IOException {
+            if (encoded.length > bytes.length) {
+                flush();
+                out.write(encoded);
+                return;
+            }
+            ensure(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        // Makes room for extra bytes, which must fit in the buffer
+        private void ensure(int extra) throws IOException {
+            if (size + extra > bytes.length) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            out.write(bytes, 0, size);
+            size = 0;
+        }
+    }
+}
@@ -1,15 +1,56 @@
 package com.freddyerf.customer.controller;
 
+import com.freddyerf.customer.model.BatchResult;
+import com.freddyerf.customer.model.CountryStats;
 import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.CustomerChangeEvent;
+import com.freddyerf.customer.model.EntityCacheStats;
+import com.freddyerf.customer.model.IdempotentResponse;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.model.PinningStats;
+import com.freddyerf.customer.service.CountryLookupUnavailableException;
+import com.freddyerf.customer.service.CustomerChangeFeed;
+import com.freddyerf.customer.service.CustomerSearchMode;
 import com.freddyerf.customer.service.CustomerService;
+import com.freddyerf.customer.service.IdempotencyKeyInProgressException;
+import com.freddyerf.customer.service.IdempotencyKeyReusedException;
+import com.freddyerf.customer.service.IdempotencyService;
+import com.freddyerf.customer.service.PinningMonitor;
+import com.freddyerf.customer.service.RequestExecutor;
 import jakarta.inject.Inject;
+import jakarta.json.JsonObject;
+import jakarta.json.bind.Jsonb;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.OpenAPIDefinition;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
 import org.eclipse.microprofile.openapi.annotations.info.Info;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -28,86 +69,519 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 )
 public class CustomerController {
 
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     @Inject
     CustomerService customerService;
 
+    @Inject
+    RequestExecutor requestExecutor;
+
+    @Inject
+    PinningMonitor pinningMonitor;
+
+    @Inject
+    CustomerChangeFeed changeFeed;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    Jsonb jsonb;
+
+    @ConfigProperty(name = "customer.batch.max-size", defaultValue = "100000")
+    int maxBatchSize;
+
     @POST
-    @Operation(summary = "Create a new customer", description = "Adds a new customer to the database.")
+    @Operation(summary = "Create a new customer", description = "Adds a new customer to the database. With an Idempotency-Key header the customer is created at most once per key: retrying with the same key and body returns the original response, marked with Idempotent-Replayed: true.")
     @APIResponse(responseCode = "200", description = "Customer created",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = Customer.class)))
+    @APIResponse(responseCode = "409", description = "Another customer already has the email, or a request with the same Idempotency-Key is still in progress")
+    @APIResponse(responseCode = "422", description = "The Idempotency-Key was already used with a different request")
+    @Parameter(name = IDEMPOTENCY_KEY, in = ParameterIn.HEADER, description = "Client-generated key identifying this request across retries, e.g. a UUID", example = "8e03978e-40d5-43e8-bc93-6894a57f9324")
+
+    public CompletionStage<Response> createCustomer(@HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey, Customer customer) {
+        return requestExecutor.submit(() -> {
+            try {
+                return idempotent(idempotencyKey, "POST /customers", customer, () -> {
+                    Customer createdCustomer = customerService.createCustomer(customer);
+                    return Response.ok(createdCustomer).tag(etag(createdCustomer)).build();
+                });
+            } catch (EntityExistsException e) {
+                return emailConflict(e);
+            }
+        });
+    }
+
+    @POST
+    @Path("/batch")
+    @Operation(summary = "Create customers in bulk", description = "Validates and creates many customers at once. Valid customers are created even if others in the batch are rejected. Without an Idempotency-Key the customers are committed in chunks; with one they commit together with the stored result, in a single transaction.")
+    @APIResponse(responseCode = "200", description = "Ids of the created customers and errors of the rejected ones",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BatchResult.class)))
+    @APIResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress, or another request took an email of the batch while it was inserted under an Idempotency-Key")
+    @APIResponse(responseCode = "413", description = "The batch has more customers than the server accepts")
+    @APIResponse(responseCode = "422", description = "The Idempotency-Key was already used with a different request")
+    @Parameter(name = IDEMPOTENCY_KEY, in = ParameterIn.HEADER, description = "Client-generated key identifying this request across retries; a retry with the same key and body returns the original result", example = "8e03978e-40d5-43e8-bc93-6894a57f9324")
 
-    public Response createCustomer(Customer customer) {
-        Customer createdCustomer = customerService.createCustomer(customer);
-        return Response.ok(createdCustomer).build();
+    public CompletionStage<Response> createCustomers(@HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey, List<Customer> customers) {
+        return requestExecutor.submit(() -> {
+            if (customers == null || customers.isEmpty()) {
+                return Response.status(Response.Status.BAD_REQUEST).build();
+            }
+            if (customers.size() > maxBatchSize) {
+                return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).build();
+            }
+            if (idempotencyKey == null) {
+                return Response.ok(customerService.createCustomers(customers)).build();
+            }
+            try {
+                return idempotent(idempotencyKey, "POST /customers/batch", customers, () -> {
+                    BatchResult result = customerService.createCustomersInTransaction(customers);
+                    return Response.ok(result).build();
+                });
+            } catch (EntityExistsException e) {
+                return emailConflict(e);
+            }
+        });
     }
 
     @GET
-    @Operation(summary = "Get all customers", description = "Retrieves a list of all customers.")
-    @APIResponse(responseCode = "200", description = "List of customers",
+    @Produces({MediaType.APPLICATION_JSON, CustomerCbor.APPLICATION_CBOR})
+    @Operation(summary = "Get all customers", description = "Retrieves a page of customers ordered by ID. Pass the returned nextCursor as 'after' to get the next page. Send Accept: application/cbor for a compact binary page of the same shape.")
+    @APIResponse(responseCode = "200", description = "Page of customers",
             content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Page.class)))
+    @APIResponse(responseCode = "400", description = "A requested field is not a customer field")
+    @Parameter(name = "after", description = "Cursor returned with the previous page; omit for the first page", example = "100")
+    @Parameter(name = "limit", description = "Maximum number of customers in the page, capped by the server", example = "50")
+    @Parameter(name = "fields", description = "Comma-separated customer fields to return instead of whole customers; id is always included", example = "email,country")
+
+    public CompletionStage<Response> getAllCustomers(@QueryParam("after") Long after, @QueryParam("limit") Integer limit,
+                                                     @QueryParam("fields") String fields) {
+        return requestExecutor.submit(() -> {
+            if (fields != null) {
+                return projected(() -> customerService.getCustomerFields(fields, after, limit));
+            }
+            Page<Customer> customers = customerService.getCustomers(after, limit);
+            return Response.ok(customers).build();
+        });
+    }
+
+    @GET
+    @Path("/export")
+    @Produces(APPLICATION_NDJSON)
+    @Operation(summary = "Export all customers", description = "Streams every customer, ordered by ID, as newline-delimited JSON. Memory use on the server does not depend on the number of customers.")
+    @APIResponse(responseCode = "200", description = "One JSON customer per line",
+            content = @Content(mediaType = APPLICATION_NDJSON,
                     schema = @Schema(implementation = Customer.class)))
 
-    public Response getAllCustomers() {
-        List<Customer> customers = customerService.getAllCustomers();
-        return Response.ok(customers).build();
+    public Response exportCustomers() {
+        StreamingOutput body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            try {
+                customerService.exportCustomers(customer -> {
+                    try {
+                        writer.write(jsonb.toJson(customer));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return Response.ok(body).build();
+    }
+
+    @GET
+    @Path("/stats/countries")
+    @Operation(summary = "Get customer counts per country", description = "Returns how many customers each country has, with the most customers first.")
+    @APIResponse(responseCode = "200", description = "Customer count per country",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CountryStats.class)))
+
+    public CompletionStage<Response> getCountryStats() {
+        return requestExecutor.submit(() -> {
+            List<CountryStats> stats = customerService.getCountryStats();
+            return Response.ok(stats).build();
+        });
+    }
+
+    @GET
+    @Path("/stats/cache")
+    @Operation(summary = "Get customer cache statistics", description = "Returns hit, miss and put counters of the customer second-level cache and of the by-country query cache.")
+    @APIResponse(responseCode = "200", description = "Customer cache statistics",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = EntityCacheStats.class)))
+
+    public Response getCacheStats() {
+        return Response.ok(customerService.getCacheStats()).build();
+    }
+
+    @GET
+    @Path("/stats/pinning")
+    @Operation(summary = "Get virtual thread pinning statistics", description = "Returns how often virtual threads blocked while pinned to their carrier thread, and where. Only monitored when customer.execution.mode is VIRTUAL_THREADS.")
+    @APIResponse(responseCode = "200", description = "Virtual thread pinning statistics",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = PinningStats.class)))
+
+    public Response getPinningStats() {
+        return Response.ok(pinningMonitor.getStats()).build();
+    }
+
+    @GET
+    @Path("/search")
+    @Produces({MediaType.APPLICATION_JSON, CustomerCbor.APPLICATION_CBOR})
+    @Operation(summary = "Search customers", description = "Finds customers whose first name, last names, email or phone match the query, ignoring case. In prefix mode results are ordered by ID and paginated like the other listings; in fuzzy mode misspelled queries still match and a single page of the closest matches is returned. Send Accept: application/cbor for a compact binary page of the same shape.")
+    @APIResponse(responseCode = "200", description = "Page of matching customers",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Page.class)))
+    @APIResponse(responseCode = "400", description = "The query is too short or the mode is unknown")
+    @Parameter(name = "q", description = "The text to search for", example = "gonz")
+    @Parameter(name = "mode", description = "'prefix' (default) or 'fuzzy'", example = "prefix")
+    @Parameter(name = "after", description = "Cursor returned with the previous page; omit for the first page", example = "100")
+    @Parameter(name = "limit", description = "Maximum number of customers in the page, capped by the server", example = "50")
+
+    public CompletionStage<Response> searchCustomers(@QueryParam("q") String query,
+                                                     @QueryParam("mode") @DefaultValue("prefix") String mode,
+                                                     @QueryParam("after") Long after, @QueryParam("limit") Integer limit) {
+        return requestExecutor.submit(() -> {
+            try {
+                CustomerSearchMode searchMode = CustomerSearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+                Page<Customer> customers = customerService.searchCustomers(query, searchMode, after, limit);
+                return Response.ok(customers).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+            }
+        });
+    }
+
+    @GET
+    @Path("/changes")
+    @Operation(summary = "Get customer changes", description = "Retrieves the customers created, updated and deleted after a position of the change feed, in the order they were committed. Pass the returned nextCursor as 'since' to get the next page; a null nextCursor means the feed has no more changes yet, so poll again later with the position of the last change received.")
+    @APIResponse(responseCode = "200", description = "Page of customer changes",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Page.class)))
+    @Parameter(name = "since", description = "Position of the last change already seen; omit to read from the start of the feed", example = "100")
+    @Parameter(name = "limit", description = "Maximum number of changes in the page, capped by the server", example = "50")
+
+    public CompletionStage<Response> getCustomerChanges(@QueryParam("since") Long since, @QueryParam("limit") Integer limit) {
+        return requestExecutor.submit(() -> {
+            Page<CustomerChangeEvent> changes = customerService.getChanges(since, limit);
+            return Response.ok(changes).build();
+        });
+    }
+
+    @GET
+    @Path("/changes/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Stream customer changes", description = "Streams customer changes as Server-Sent Events as soon as they are relayed. Each event is named CREATED, UPDATED or DELETED, carries the change as JSON and has its feed position as ID, so a reconnecting client resumes where it left off through Last-Event-ID.")
+    @APIResponse(responseCode = "200", description = "Stream of customer changes",
+            content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS,
+                    schema = @Schema(implementation = CustomerChangeEvent.class)))
+    @Parameter(name = "since", description = "Position of the last change already seen; omit to only receive new changes unless Last-Event-ID is sent", example = "100")
+
+    public void streamCustomerChanges(@QueryParam("since") Long since,
+                                      @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+                                      @Context SseEventSink sink, @Context Sse sse) {
+        long position;
+        try {
+            position = lastEventId != null ? Long.parseLong(lastEventId.strip())
+                    : since != null ? since : customerService.getLatestChangePosition();
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Last-Event-ID is not a change position: " + lastEventId);
+        }
+        changeFeed.subscribe(sink, sse, position);
     }
 
     @GET
     @Path("/{country}")
-    @Operation(summary = "Get customers by country", description = "Retrieves a list of customers who belong to a specific country.")
-    @APIResponse(responseCode = "200", description = "List of customers from the specified country",
+    @Produces({MediaType.APPLICATION_JSON, CustomerCbor.APPLICATION_CBOR})
+    @Operation(summary = "Get customers by country", description = "Retrieves a page of customers who belong to a specific country, ordered by ID. Send Accept: application/cbor for a compact binary page of the same shape.")
+    @APIResponse(responseCode = "200", description = "Page of customers from the specified country",
             content = @Content(mediaType = "application/json",
-                    schema = @Schema(implementation = Customer.class)))
+                    schema = @Schema(implementation = Page.class)))
+    @APIResponse(responseCode = "400", description = "A requested field is not a customer field")
     @Parameter(name = "country", description = "The ISO country code", example = "US")
+    @Parameter(name = "after", description = "Cursor returned with the previous page; omit for the first page", example = "100")
+    @Parameter(name = "limit", description = "Maximum number of customers in the page, capped by the server", example = "50")
+    @Parameter(name = "fields", description = "Comma-separated customer fields to return instead of whole customers; id is always included", example = "email,country")
 
-    public Response getCustomersByCountry(@PathParam("country") String country) {
-        List<Customer> customers = customerService.getCustomersByCountry(country);
-        return Response.ok(customers).build();
+    public CompletionStage<Response> getCustomersByCountry(@PathParam("country") String country,
+                                                           @QueryParam("after") Long after, @QueryParam("limit") Integer limit,
+                                                           @QueryParam("fields") String fields) {
+        return requestExecutor.submit(() -> {
+            if (fields != null) {
+                return projected(() -> customerService.getCustomerFieldsByCountry(country, fields, after, limit));
+            }
+            Page<Customer> customers = customerService.getCustomersByCountry(country, after, limit);
+            return Response.ok(customers).build();
+        });
     }
 
     @GET
-    @Path("/{id}")
-    @Operation(summary = "Get a customer by ID", description = "Retrieves a customer by their unique identifier.")
+    @Path("/{id: \\d+}")
+    @Operation(summary = "Get a customer by ID", description = "Retrieves a customer by their unique identifier. The ETag is the customer's version; send it back in If-None-Match to get a 304 while the customer is unchanged.")
     @APIResponse(responseCode = "200", description = "Customer details",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = Customer.class)))
+    @APIResponse(responseCode = "304", description = "The customer still has the version given in If-None-Match")
+    @APIResponse(responseCode = "404", description = "Customer not found")
     @Parameter(name = "id", description = "The unique identifier of the customer", example = "1")
 
-    public Response getCustomersById(@PathParam("id") Long id) {
-        Customer customer = customerService.getCustomerById(id);
-        return Response.ok(customer).build();
+    public CompletionStage<Response> getCustomersById(@PathParam("id") Long id, @Context Request request) {
+        return requestExecutor.submit(() -> {
+            Customer customer = customerService.getCustomerById(id);
+            if (customer == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            EntityTag tag = etag(customer);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+            if (notModified != null) {
+                return notModified.build();
+            }
+            return Response.ok(customer).tag(tag).build();
+        });
+    }
+
+    @GET
+    @Path("/by-email/{email}")
+    @Operation(summary = "Get a customer by email", description = "Retrieves the customer with an email, ignoring case, through the unique email index.")
+    @APIResponse(responseCode = "200", description = "Customer details",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Customer.class)))
+    @APIResponse(responseCode = "404", description = "No customer has the email")
+    @Parameter(name = "email", description = "The email of the customer", example = "john.doe@example.com")
+
+    public CompletionStage<Response> getCustomerByEmail(@PathParam("email") String email) {
+        return requestExecutor.submit(() -> {
+            Customer customer = customerService.getCustomerByEmail(email);
+            if (customer == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            return Response.ok(customer).tag(etag(customer)).build();
+        });
     }
 
     @PUT
-    @Path("/{id}")
-    @Operation(summary = "Update a customer", description = "Updates the details of an existing customer.")
+    @Path("/{id: \\d+}")
+    @Operation(summary = "Update a customer", description = "Updates the details of an existing customer. With If-Match, the update only applies if the customer still has that ETag.")
     @APIResponse(responseCode = "200", description = "Updated customer details",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = Customer.class)))
+    @APIResponse(responseCode = "400", description = "The updated customer is invalid, or its country code is unknown")
+    @APIResponse(responseCode = "409", description = "The customer was changed concurrently, or another customer already has the new email")
+    @APIResponse(responseCode = "412", description = "The customer no longer has the ETag given in If-Match")
+    @APIResponse(responseCode = "503", description = "The demonym of the new country could not be looked up")
     @Parameter(name = "id", description = "The unique identifier of the customer to be updated", example = "1")
 
-    public Response updateCustomer(@PathParam("id") Long id, Customer customer) {
-        Customer updatedCustomer = customerService.updateCustomer(id, customer);
-        if (updatedCustomer != null) {
-            return Response.ok(updatedCustomer).build();
-        } else {
-            return Response.status(Response.Status.NOT_FOUND).build();
-        }
+    public CompletionStage<Response> updateCustomer(@PathParam("id") Long id,
+                                                    @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                                    Customer customer) {
+        return requestExecutor.submit(() -> {
+            Set<Long> expectedVersions = expectedVersions(ifMatch);
+            try {
+                Customer updatedCustomer = customerService.updateCustomer(id, customer, expectedVersions);
+                if (updatedCustomer != null) {
+                    return Response.ok(updatedCustomer).tag(etag(updatedCustomer)).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND).build();
+                }
+            } catch (OptimisticLockException e) {
+                return versionConflict(expectedVersions);
+            } catch (EntityExistsException e) {
+                return emailConflict(e);
+            } catch (CountryLookupUnavailableException e) {
+                return countryLookupUnavailable(e);
+            }
+        });
+    }
+
+    @PATCH
+    @Path("/{id: \\d+}")
+    @Consumes(APPLICATION_MERGE_PATCH_JSON)
+    @Operation(summary = "Partially update a customer", description = "Applies a JSON Merge Patch: only the fields present in the body change, and null clears an optional field. The demonym is only looked up again when the country changes, and a patch that changes nothing writes nothing. With If-Match, the patch only applies if the customer still has that ETag.")
+    @APIResponse(responseCode = "200", description = "Patched customer details",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Customer.class)))
+    @APIResponse(responseCode = "400", description = "The patch names a field that cannot be changed, has a value that is not a string or null, or leaves the customer invalid")
+    @APIResponse(responseCode = "409", description = "The customer was changed concurrently, or another customer already has the new email")
+    @APIResponse(responseCode = "412", description = "The customer no longer has the ETag given in If-Match")
+    @APIResponse(responseCode = "503", description = "The demonym of the new country could not be looked up")
+    @Parameter(name = "id", description = "The unique identifier of the customer to be patched", example = "1")
+
+    public CompletionStage<Response> patchCustomer(@PathParam("id") Long id,
+                                                   @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                                   JsonObject patch) {
+        return requestExecutor.submit(() -> {
+            Set<Long> expectedVersions = expectedVersions(ifMatch);
+            try {
+                Customer patchedCustomer = customerService.patchCustomer(id, patch, expectedVersions);
+                if (patchedCustomer != null) {
+                    return Response.ok(patchedCustomer).tag(etag(patchedCustomer)).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND).build();
+                }
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+            } catch (OptimisticLockException e) {
+                return versionConflict(expectedVersions);
+            } catch (EntityExistsException e) {
+                return emailConflict(e);
+            } catch (CountryLookupUnavailableException e) {
+                return countryLookupUnavailable(e);
+            }
+        });
     }
 
     @DELETE
-    @Path("/{id}")
-    @Operation(summary = "Delete a customer", description = "Deletes a customer from the database using their ID.")
+    @Path("/{id: \\d+}")
+    @Operation(summary = "Delete a customer", description = "Deletes a customer from the database using their ID. With If-Match, the customer is only deleted if it still has that ETag.")
     @APIResponse(responseCode = "204", description = "Customer deleted successfully")
+    @APIResponse(responseCode = "409", description = "The customer was changed concurrently")
+    @APIResponse(responseCode = "412", description = "The customer no longer has the ETag given in If-Match")
     @Parameter(name = "id", description = "The unique identifier of the customer to be deleted", example = "1")
 
-    public Response deleteCustomer(@PathParam("id") Long id) {
-        if (customerService.deleteCustomer(id)) {
-            return Response.noContent().build();
-        } else {
-            return Response.status(Response.Status.NOT_FOUND).build();
+    public CompletionStage<Response> deleteCustomer(@PathParam("id") Long id,
+                                                    @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        return requestExecutor.submit(() -> {
+            Set<Long> expectedVersions = expectedVersions(ifMatch);
+            try {
+                if (customerService.deleteCustomer(id, expectedVersions)) {
+                    return Response.noContent().build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND).build();
+                }
+            } catch (OptimisticLockException e) {
+                return versionConflict(expectedVersions);
+            }
+        });
+    }
+
+    // A page of projected customers, or 400 when a requested field does not exist
+    private static Response projected(Supplier<Page<Map<String, Object>>> query) {
+        try {
+            return Response.ok(query.get()).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
         }
     }
+
+    // Runs a create at most once per Idempotency-Key. The request body is fingerprinted before the
+    // create enriches it, and the response is served from its stored JSON on the first call too.
+    private Response idempotent(String key, String operation, Object request, Supplier<Response> create) {
+        if (key == null) {
+            return create.get();
+        }
+        if (key.isBlank() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return Response.status(Response.Status.BAD_REQUEST).type(MediaType.TEXT_PLAIN)
+                    .entity(IDEMPOTENCY_KEY + " must have 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters").build();
+        }
+        try {
+            IdempotentResponse response = idempotencyService.execute(key, operation + " " + jsonb.toJson(request),
+                    () -> stored(create.get()));
+            Response.ResponseBuilder builder = Response.status(response.status());
+            if (response.body() != null) {
+                builder.type(MediaType.APPLICATION_JSON).entity(response.body());
+            }
+            if (response.etag() != null) {
+                builder.tag(response.etag());
+            }
+            if (response.replayed()) {
+                builder.header(IDEMPOTENT_REPLAYED, "true");
+            }
+            return builder.build();
+        } catch (IdempotencyKeyReusedException e) {
+            return Response.status(422).type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+        } catch (IdempotencyKeyInProgressException e) {
+            return Response.status(Response.Status.CONFLICT).header(HttpHeaders.RETRY_AFTER, 1)
+                    .type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+        }
+    }
+
+    private static Response emailConflict(EntityExistsException e) {
+        return Response.status(Response.Status.CONFLICT).type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+    }
+
+    // The new country could not be checked, which says nothing about the request, so the client may retry it
+    private static Response countryLookupUnavailable(CountryLookupUnavailableException e) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, 1)
+                .type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build();
+    }
+
+    private IdempotentResponse stored(Response response) {
+        EntityTag tag = response.getEntityTag();
+        return new IdempotentResponse(response.getStatus(),
+                response.hasEntity() ? jsonb.toJson(response.getEntity()) : null,
+                tag != null ? tag.getValue() : null, false);
+    }
+
+    private static EntityTag etag(Customer customer) {
+        return new EntityTag(String.valueOf(customer.getVersion()));
+    }
+
+    // Versions named by an If-Match header, which lists one or more entity tags (RFC 9110 13.1.1);
+    // null when absent or "*", i.e. any version matches. If-Match compares strongly, so weak tags
+    // and tags that are not a version can never match and are left out; a header with only such
+    // tags gives an empty set, which no customer matches.
+    static Set<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        int i = 0;
+        while (i < ifMatch.length()) {
+            char c = ifMatch.charAt(i);
+            if (c == ',' || Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '*') {
+                return null;
+            }
+            boolean weak = ifMatch.startsWith("W/\"", i);
+            int open = weak ? i + 2 : i;
+            int end;
+            if (ifMatch.charAt(open) == '"') {
+                int close = ifMatch.indexOf('"', open + 1);
+                end = close < 0 ? ifMatch.length() : close + 1;
+                if (!weak && close > 0) {
+                    addVersion(versions, ifMatch.substring(open + 1, close));
+                }
+            } else {
+                // Unquoted, which is not a valid entity tag but is accepted as a bare version
+                int comma = ifMatch.indexOf(',', i);
+                end = comma < 0 ? ifMatch.length() : comma;
+                addVersion(versions, ifMatch.substring(i, end).trim());
+            }
+            i = end;
+        }
+        return versions;
+    }
+
+    private static void addVersion(Set<Long> versions, String tag) {
+        if (!tag.isEmpty() && tag.chars().allMatch(Character::isDigit)) {
+            try {
+                versions.add(Long.parseLong(tag));
+            } catch (NumberFormatException e) {
+                // Too large to be a version
+            }
+        }
+    }
+
+    // A stale If-Match is a failed precondition; without one, the row changed under a blind update
+    private static Response versionConflict(Set<Long> expectedVersions) {
+        return Response.status(expectedVersions != null
+                ? Response.Status.PRECONDITION_FAILED
+                : Response.Status.CONFLICT).build();
+    }
 }
 
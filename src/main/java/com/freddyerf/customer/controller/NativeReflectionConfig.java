@@ -0,0 +1,33 @@
+package com.freddyerf.customer.controller;
+
+import com.freddyerf.customer.model.BatchResult;
+import com.freddyerf.customer.model.CountryStats;
+import com.freddyerf.customer.model.CustomerChangeEvent;
+import com.freddyerf.customer.model.EntityCacheStats;
+import com.freddyerf.customer.model.ImportResult;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.model.PinningStats;
+import com.freddyerf.customer.service.DemonymCache;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Response bodies that JSON-B serializes by reflection. The endpoints return them wrapped in a
+ * {@code Response}, so Quarkus cannot find them from the method signatures, and a native image
+ * would otherwise serialize them as empty objects.
+ */
+@RegisterForReflection(targets = {
+        Page.class,
+        BatchResult.class,
+        BatchResult.ItemError.class,
+        ImportResult.class,
+        CountryStats.class,
+        CustomerChangeEvent.class,
+        EntityCacheStats.class,
+        PinningStats.class,
+        DemonymCache.Stats.class
+})
+final class NativeReflectionConfig {
+
+    private NativeReflectionConfig() {
+    }
+}
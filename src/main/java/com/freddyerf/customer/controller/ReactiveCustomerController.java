@@ -0,0 +1,86 @@
+package com.freddyerf.customer.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.service.ReactiveCustomerService;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityExistsException;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+/**
+ * Non-blocking variant of the main customer endpoints. No thread waits on PostgreSQL
+ * or on the country API while a request is in flight.
+ */
+@Path("/reactive/customers")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "customer-reactive", description = "Non-blocking variant of the customer operations")
+public class ReactiveCustomerController {
+
+    @Inject
+    ReactiveCustomerService reactiveCustomerService;
+
+    @POST
+    @Operation(summary = "Create a new customer", description = "Adds a new customer to the database without blocking on the country lookup.")
+    @APIResponse(responseCode = "200", description = "Customer created",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Customer.class)))
+    @APIResponse(responseCode = "409", description = "Another customer already has the email")
+
+    public Uni<Response> createCustomer(Customer customer) {
+        return reactiveCustomerService.createCustomer(customer)
+                .map(createdCustomer -> Response.ok(createdCustomer).build())
+                .onFailure(EntityExistsException.class).recoverWithItem(e -> Response.status(Response.Status.CONFLICT)
+                        .type(MediaType.TEXT_PLAIN).entity(e.getMessage()).build());
+    }
+
+    @GET
+    @Operation(summary = "Get all customers", description = "Retrieves a page of customers ordered by ID. Pass the returned nextCursor as 'after' to get the next page.")
+    @APIResponse(responseCode = "200", description = "Page of customers",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Page.class)))
+
+    public Uni<Response> getAllCustomers(@QueryParam("after") Long after, @QueryParam("limit") Integer limit) {
+        return reactiveCustomerService.getCustomers(after, limit)
+                .map(customers -> Response.ok(customers).build());
+    }
+
+    @GET
+    @Path("/{country}")
+    @Operation(summary = "Get customers by country", description = "Retrieves a page of customers who belong to a specific country, ordered by ID.")
+    @APIResponse(responseCode = "200", description = "Page of customers from the specified country",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Page.class)))
+    @Parameter(name = "country", description = "The ISO country code", example = "US")
+
+    public Uni<Response> getCustomersByCountry(@PathParam("country") String country,
+                                               @QueryParam("after") Long after, @QueryParam("limit") Integer limit) {
+        return reactiveCustomerService.getCustomersByCountry(country, after, limit)
+                .map(customers -> Response.ok(customers).build());
+    }
+
+    @GET
+    @Path("/{id: \\d+}")
+    @Operation(summary = "Get a customer by ID", description = "Retrieves a customer by their unique identifier.")
+    @APIResponse(responseCode = "200", description = "Customer details",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Customer.class)))
+    @Parameter(name = "id", description = "The unique identifier of the customer", example = "1")
+
+    public Uni<Response> getCustomersById(@PathParam("id") Long id) {
+        return reactiveCustomerService.getCustomerById(id)
+                .map(customer -> customer != null
+                        ? Response.ok(customer).build()
+                        : Response.status(Response.Status.NOT_FOUND).build());
+    }
+}
@@ -0,0 +1,107 @@
+package com.freddyerf.customer.health;
+
+import com.freddyerf.customer.repository.CustomerRepository;
+import com.freddyerf.customer.service.DemonymTable;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Readiness check that passes once the instance serves its first requests as fast as later ones:
+ * the primary pool has opened its {@code min-size} connections, Hibernate has run a customer
+ * query, and the bundled demonym table is loaded. Warm-up starts in the background at startup, so
+ * it does not delay the HTTP server, and is started again by the next probe if it failed, e.g.
+ * because the database was not reachable yet. The email filter is not waited for: until it is
+ * built, creates check every email in the database.
+ */
+@Readiness
+@ApplicationScoped
+public class WarmupReadinessCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(WarmupReadinessCheck.class);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    CustomerRepository customerRepository;
+
+    private final AtomicBoolean warming = new AtomicBoolean();
+    private volatile boolean warm;
+    private volatile long warmupMillis;
+    private volatile String failure;
+
+    void onStart(@Observes StartupEvent event) {
+        warmUpInBackground();
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        if (!warm) {
+            warmUpInBackground();
+        }
+        HealthCheckResponseBuilder response = HealthCheckResponse.named("warmup").status(warm);
+        if (warm) {
+            response.withData("millis", warmupMillis);
+        } else if (failure != null) {
+            response.withData("error", failure);
+        }
+        return response.build();
+    }
+
+    private void warmUpInBackground() {
+        if (warming.compareAndSet(false, true)) {
+            Thread warmup = new Thread(this::warmUp, "customer-warmup");
+            warmup.setDaemon(true);
+            warmup.start();
+        }
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        try {
+            int connections = openConnections();
+            QuarkusTransaction.requiringNew().run(() -> customerRepository.findPage(0, 1));
+            int countries = DemonymTable.bundled().size();
+            warmupMillis = (System.nanoTime() - start) / 1_000_000;
+            failure = null;
+            warm = true;
+            LOG.infof("Warmed up in %d ms (%d connections, %d countries)", warmupMillis, connections, countries);
+        } catch (SQLException | RuntimeException e) {
+            failure = e.getMessage();
+            LOG.warnf("Warm-up failed, retrying on the next readiness probe: %s", e.getMessage());
+        } finally {
+            warming.set(false);
+        }
+    }
+
+    // Holds min-size connections at once, so the pool really has that many open when released
+    private int openConnections() throws SQLException {
+        int size = Math.max(1, dataSource.getConfiguration().connectionPoolConfiguration().minSize());
+        List<Connection> open = new ArrayList<>(size);
+        try {
+            while (open.size() < size) {
+                open.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : open) {
+                connection.close();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,219 @@
+package com.freddyerf.customer.metrics;
+
+import com.freddyerf.customer.service.DemonymCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every meter of the service, registered once at startup. Hot paths only read a field and
+ * record a primitive duration or increment, without looking a meter up or building tags.
+ * Meters whose tags depend on the request (endpoint, status) are preallocated for every
+ * possible tag value.
+ */
+@Singleton
+public class CustomerMetrics {
+
+    private static final String COUNTRY_LOOKUP = "customer.country.lookup";
+    private static final String COUNTRY_API_REQUESTS = "customer.country.api.requests";
+    private static final String COUNTRY_API_RESPONSES = "customer.country.api.responses";
+    private static final String COUNTRY_API_ERRORS = "customer.country.api.errors";
+    private static final String REPOSITORY_QUERIES = "customer.repository.queries";
+    private static final String VALIDATION_FAILURES = "customer.validation.failures";
+    private static final String HTTP_REQUESTS = "customer.http.requests";
+    private static final String DEMONYM_CACHE = "customer.demonym.cache";
+
+    /**
+     * Outcome tag values of {@code customer.http.requests}, indexed by status code / 100 - 1.
+     */
+    private static final String[] OUTCOMES = {"INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"};
+
+    private final MeterRegistry registry;
+
+    public final Timer countryLookupTable;
+    public final Timer countryLookupCache;
+    public final Timer countryLookupRemote;
+    public final Timer countryApiRequests;
+    private final Counter countryApiOk;
+    private final Counter countryApiBadRequest;
+    private final Counter countryApiNotFound;
+    private final Counter countryApiTooManyRequests;
+    private final Counter countryApiServerError;
+    private final Counter countryApiOtherStatus;
+    public final Counter countryApiTimeouts;
+    public final Counter countryApiIoErrors;
+    public final Counter countryApiInterrupted;
+    public final Counter countryApiInvalidResponses;
+
+    public final Timer findPage;
+    public final Timer findByCountry;
+    public final Timer findPageFields;
+    public final Timer findByCountryFields;
+    public final Timer findById;
+    public final Timer findByEmail;
+    public final Timer existsByEmail;
+    public final Timer searchByPrefix;
+    public final Timer searchFuzzy;
+    public final Timer replicaFindPage;
+    public final Timer replicaFindByCountry;
+    public final Timer replicaFindById;
+    public final Timer replicaFindPageFields;
+    public final Timer replicaFindByCountryFields;
+    public final Timer replicaSearchByPrefix;
+    public final Timer replicaSearchFuzzy;
+    public final Timer findChangesAfter;
+    public final Timer relayChanges;
+
+    public final Counter createValidationFailures;
+    public final Counter batchValidationFailures;
+    public final Counter updateValidationFailures;
+
+    @Inject
+    public CustomerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        countryLookupTable = Timer.builder(COUNTRY_LOOKUP)
+                .description("Demonym lookups by country code")
+                .tag("source", "table")
+                .register(registry);
+        countryLookupCache = Timer.builder(COUNTRY_LOOKUP)
+                .description("Demonym lookups by country code")
+                .tag("source", "cache")
+                .register(registry);
+        countryLookupRemote = Timer.builder(COUNTRY_LOOKUP)
+                .description("Demonym lookups by country code")
+                .tag("source", "remote")
+                .register(registry);
+        countryApiRequests = Timer.builder(COUNTRY_API_REQUESTS)
+                .description("Requests to the REST Countries API")
+                .publishPercentileHistogram()
+                .register(registry);
+        countryApiOk = countryApiResponses("200");
+        countryApiBadRequest = countryApiResponses("400");
+        countryApiNotFound = countryApiResponses("404");
+        countryApiTooManyRequests = countryApiResponses("429");
+        countryApiServerError = countryApiResponses("5xx");
+        countryApiOtherStatus = countryApiResponses("other");
+        countryApiTimeouts = countryApiErrors("timeout");
+        countryApiIoErrors = countryApiErrors("io");
+        countryApiInterrupted = countryApiErrors("interrupted");
+        countryApiInvalidResponses = countryApiErrors("invalid_response");
+
+        findPage = repositoryQuery("findPage");
+        findByCountry = repositoryQuery("findByCountry");
+        findPageFields = repositoryQuery("findPageFields");
+        findByCountryFields = repositoryQuery("findByCountryFields");
+        findById = repositoryQuery("findById");
+        findByEmail = repositoryQuery("findByEmail");
+        existsByEmail = repositoryQuery("existsByEmail");
+        searchByPrefix = repositoryQuery("searchByPrefix");
+        searchFuzzy = repositoryQuery("searchFuzzy");
+        replicaFindPage = repositoryQuery("replica.findPage");
+        replicaFindByCountry = repositoryQuery("replica.findByCountry");
+        replicaFindById = repositoryQuery("replica.findById");
+        replicaFindPageFields = repositoryQuery("replica.findPageFields");
+        replicaFindByCountryFields = repositoryQuery("replica.findByCountryFields");
+        replicaSearchByPrefix = repositoryQuery("replica.searchByPrefix");
+        replicaSearchFuzzy = repositoryQuery("replica.searchFuzzy");
+        findChangesAfter = repositoryQuery("findChangesAfter");
+        relayChanges = repositoryQuery("relayChanges");
+
+        createValidationFailures = validationFailures("create");
+        batchValidationFailures = validationFailures("batch");
+        updateValidationFailures = validationFailures("update");
+    }
+
+    /**
+     * Counts a response of the REST Countries API by status code.
+     *
+     * @param status The HTTP status code of the response.
+     */
+    public void countryApiResponse(int status) {
+        switch (status) {
+            case 200 -> countryApiOk.increment();
+            case 400 -> countryApiBadRequest.increment();
+            case 404 -> countryApiNotFound.increment();
+            case 429 -> countryApiTooManyRequests.increment();
+            default -> (status >= 500 && status < 600 ? countryApiServerError : countryApiOtherStatus).increment();
+        }
+    }
+
+    /**
+     * Registers one timer per response status class for a resource method.
+     *
+     * @param resourceClass The resource class.
+     * @param resourceMethod The resource method.
+     * @return The timers, indexed by status code / 100 - 1.
+     */
+    public Timer[] httpRequestTimers(Class<?> resourceClass, Method resourceMethod) {
+        String endpoint = resourceClass.getSimpleName() + "." + resourceMethod.getName();
+        Timer[] timers = new Timer[OUTCOMES.length];
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            timers[i] = Timer.builder(HTTP_REQUESTS)
+                    .description("Requests handled by each REST endpoint")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", OUTCOMES[i])
+                    .register(registry);
+        }
+        return timers;
+    }
+
+    /**
+     * Exposes the counters and size of a demonym cache.
+     *
+     * @param cache The cache to observe.
+     */
+    public void bindDemonymCache(DemonymCache cache) {
+        FunctionCounter.builder(DEMONYM_CACHE + ".hits", cache, c -> c.stats().hits()).register(registry);
+        FunctionCounter.builder(DEMONYM_CACHE + ".misses", cache, c -> c.stats().misses()).register(registry);
+        FunctionCounter.builder(DEMONYM_CACHE + ".load.failures", cache, c -> c.stats().loadFailures()).register(registry);
+        FunctionCounter.builder(DEMONYM_CACHE + ".stale.hits", cache, c -> c.stats().staleHits()).register(registry);
+        FunctionCounter.builder(DEMONYM_CACHE + ".evictions", cache, c -> c.stats().evictions()).register(registry);
+        Gauge.builder(DEMONYM_CACHE + ".size", cache, c -> c.stats().size()).register(registry);
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading.
+     *
+     * @param timer The timer to record into.
+     * @param startNanos The reading taken when the measured operation started.
+     */
+    public static void recordSince(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter countryApiResponses(String status) {
+        return Counter.builder(COUNTRY_API_RESPONSES)
+                .description("Responses of the REST Countries API by status code")
+                .tag("status", status)
+                .register(registry);
+    }
+
+    private Counter countryApiErrors(String type) {
+        return Counter.builder(COUNTRY_API_ERRORS)
+                .description("REST Countries API requests that failed without a usable response")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    private Timer repositoryQuery(String query) {
+        return Timer.builder(REPOSITORY_QUERIES)
+                .description("Customer repository queries")
+                .tag("query", query)
+                .register(registry);
+    }
+
+    private Counter validationFailures(String operation) {
+        return Counter.builder(VALIDATION_FAILURES)
+                .description("Customers rejected by bean validation")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
@@ -0,0 +1,55 @@
+package com.freddyerf.customer.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Times every resource method into {@code customer.http.requests}. The timers of a method are
+ * registered once, when the method is deployed, and handed to a filter bound to that method
+ * only, so a request never looks a meter up by its tags.
+ */
+@Provider
+public class EndpointMetricsFeature implements DynamicFeature {
+
+    private static final String START = EndpointMetricsFeature.class.getName() + ".start";
+
+    @Inject
+    CustomerMetrics metrics;
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        context.register(new TimingFilter(metrics.httpRequestTimers(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod())));
+    }
+
+    private static final class TimingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+        private final Timer[] byStatusClass;
+
+        TimingFilter(Timer[] byStatusClass) {
+            this.byStatusClass = byStatusClass;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request) {
+            request.setProperty(START, System.nanoTime());
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            Object start = request.getProperty(START);
+            if (start == null) {
+                return; // Rejected before this resource method was matched
+            }
+            int statusClass = Math.max(1, Math.min(response.getStatus() / 100, byStatusClass.length)) - 1;
+            CustomerMetrics.recordSince(byStatusClass[statusClass], (Long) start);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.freddyerf.customer.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk customer creation.
+ *
+ * @param ids    The id of each created customer, in request order; null where the item was rejected.
+ * @param errors The rejected items.
+ */
+public record BatchResult(List<Long> ids, List<ItemError> errors) {
+
+    /**
+     * Why one item of the batch was rejected.
+     *
+     * @param index    The position of the item in the request.
+     * @param messages The validation or persistence errors of the item.
+     */
+    public record ItemError(int index, List<String> messages) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.freddyerf.customer.model;
+
+/**
+ * Number of customers per country, kept up to date on every customer write so that
+ * per-country counts never need a {@code GROUP BY} over the customer table. Summed
+ * from the {@link CountryStatsSlot} rows of the country.
+ */
+public class CountryStats {
+    private String country; // ISO 3166 code
+
+    private long customers;
+
+    public CountryStats() {
+    }
+
+    public CountryStats(String country, long customers) {
+        this.country = country;
+        this.customers = customers;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public long getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(long customers) {
+        this.customers = customers;
+    }
+}
@@ -0,0 +1,74 @@
+package com.freddyerf.customer.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One share of a country's customer count. Every write adds its delta to one slot of the
+ * country picked at random, so concurrent writers of the same country mostly update different
+ * rows instead of queueing on a single one; the count of a country is the sum of its slots.
+ * A slot can go negative when deletes land on it, only the sum is meaningful.
+ */
+@Entity
+@Table(name = "country_stats_slot")
+@IdClass(CountryStatsSlot.Key.class)
+public class CountryStatsSlot {
+
+    public static class Key implements Serializable {
+        private String country;
+        private int slot;
+
+        public Key() {
+        }
+
+        public Key(String country, int slot) {
+            this.country = country;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && slot == key.slot && Objects.equals(country, key.country);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(country, slot);
+        }
+    }
+
+    @Id
+    private String country; // ISO 3166 code
+
+    @Id
+    private int slot;
+
+    @Column(nullable = false)
+    private long customers;
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public long getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(long customers) {
+        this.customers = customers;
+    }
+}
@@ -1,14 +1,32 @@
 package com.freddyerf.customer.model;
 
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@Cacheable
+// Updates only write the columns that changed, which partial updates (PATCH) make the common case
+@DynamicUpdate
+@Table(indexes = {
+        // Serves both country lookups and their keyset pagination ordered by id
+        @Index(name = "idx_customer_country_id", columnList = "country, id")
+})
+@KnownCountry(groups = KnownCountry.Resolved.class)
 public class Customer {
+    /**
+     * Number of ids reserved per sequence call. Hibernate's pooled optimizer hands them out
+     * from memory, which keeps ids available up front and lets inserts be JDBC-batched.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank
@@ -43,6 +61,16 @@ public class Customer {
     @Column(nullable = false)
     private String demonym;
 
+    /**
+     * Incremented on every update. Updates and deletes fail with an OptimisticLockException
+     * when the row changed since it was read, and the value is served as the ETag.
+     * Existing rows start at 0 when the column is added.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Getter and setter methods for all fields
 
     public String getDemonym() {
@@ -61,6 +89,16 @@ public class Customer {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    // Assigned by Hibernate; a version sent by a client is ignored
+    @JsonbTransient
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
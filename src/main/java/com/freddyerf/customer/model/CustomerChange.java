@@ -0,0 +1,89 @@
+package com.freddyerf.customer.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outbox row of the customer change feed, written in the same transaction as the change it
+ * describes. Rows are invisible to readers of the feed until the relay assigns them a position.
+ */
+@Entity
+@Table(name = "customer_change", indexes = {
+        // Serves the feed, read in position order from a consumer's cursor
+        @Index(name = "idx_customer_change_position", columnList = "position", unique = true)
+})
+public class CustomerChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    // Generated in memory, so outbox rows are JDBC-batched with the customers they describe
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // Write order, assigned by the database on insert. A later change of the same customer
+    // can only be written after the earlier one committed, so it always gets a larger value.
+    @Column(insertable = false, updatable = false, columnDefinition = "bigserial")
+    private Long seq;
+
+    // Feed order, assigned by the relay once the row is committed; null until then
+    private Long position;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    private Long version; // The customer's version after the change, or the deleted version
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    @Column(columnDefinition = "text")
+    private String customer; // JSON of the customer after the change, null for deletions
+
+    public CustomerChange() {
+    }
+
+    public CustomerChange(Type type, Long customerId, Long version, String customer) {
+        this.type = type;
+        this.customerId = customerId;
+        this.version = version;
+        this.customer = customer;
+        this.occurredAt = Instant.now();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+}
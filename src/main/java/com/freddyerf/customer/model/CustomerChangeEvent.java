@@ -0,0 +1,17 @@
+package com.freddyerf.customer.model;
+
+import java.time.Instant;
+
+/**
+ * One entry of the customer change feed.
+ *
+ * @param position   The position of the change in the feed; pass it as {@code since} to read the changes after it.
+ * @param customerId The ID of the changed customer.
+ * @param type       Whether the customer was created, updated or deleted.
+ * @param version    The customer's version after the change, or the version that was deleted.
+ * @param occurredAt When the change was written.
+ * @param customer   The customer after the change, or null for deletions.
+ */
+public record CustomerChangeEvent(long position, Long customerId, CustomerChange.Type type, Long version,
+                                  Instant occurredAt, Customer customer) {
+}
@@ -0,0 +1,10 @@
+package com.freddyerf.customer.model;
+
+/**
+ * Hibernate cache counters of the customer entity region and of the by-country query region.
+ * All counters are zero when {@code quarkus.hibernate-orm.statistics} is disabled.
+ */
+public record EntityCacheStats(boolean statisticsEnabled,
+                               long entityHits, long entityMisses, long entityPuts, long entitiesInMemory,
+                               long queryHits, long queryMisses, long queryPuts) {
+}
@@ -0,0 +1,57 @@
+package com.freddyerf.customer.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A client-supplied {@code Idempotency-Key} and the response of the request that first used it.
+ * The row is claimed before the request runs and completed in the transaction of its writes.
+ */
+@Entity
+@Table(name = "idempotency_key")
+public class IdempotencyKey {
+    @Id
+    private String requestKey;
+
+    @Column(nullable = false)
+    private String fingerprint; // SHA-256 of the operation and request body the key was first used with
+
+    @Column(nullable = false)
+    private Instant claimedAt;
+
+    private Integer status; // Null while the first request is still running
+
+    @Column(columnDefinition = "text")
+    private String body;
+
+    private String etag;
+
+    public String getRequestKey() {
+        return requestKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Instant getClaimedAt() {
+        return claimedAt;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public boolean isCompleted() {
+        return status != null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.freddyerf.customer.model;
+
+/**
+ * The response of a request made with an {@code Idempotency-Key}, as stored with the key.
+ *
+ * @param status   The HTTP status code.
+ * @param body     The JSON body, or null if the response has none.
+ * @param etag     The entity tag value, or null if the response has none.
+ * @param replayed Whether the response was stored by an earlier request with the same key.
+ */
+public record IdempotentResponse(int status, String body, String etag, boolean replayed) {
+}
@@ -0,0 +1,15 @@
+package com.freddyerf.customer.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param imported The number of customers created.
+ * @param rejected The number of records that were skipped.
+ * @param duplicates The number of valid records that were skipped because a customer already had their email, ignoring case.
+ * @param errors   Why records were skipped, for at most the first {@code customer.import.max-reported-errors}
+ *                 of them; the index is the position of the record in the input, header excluded.
+ */
+public record ImportResult(long imported, long rejected, long duplicates, List<BatchResult.ItemError> errors) {
+}
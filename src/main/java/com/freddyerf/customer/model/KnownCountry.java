@@ -0,0 +1,46 @@
+package com.freddyerf.customer.model;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The customer's country resolved to a demonym. Checked in the {@link Resolved} group once
+ * the country has been looked up, and reported on the {@code country} property.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = KnownCountry.Validator.class)
+public @interface KnownCountry {
+
+    String message() default "unknown country code";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    // Validation group of the checks that need the demonym lookup to have run
+    interface Resolved {
+    }
+
+    class Validator implements ConstraintValidator<KnownCountry, Customer> {
+
+        @Override
+        public boolean isValid(Customer customer, ConstraintValidatorContext context) {
+            if (customer == null || customer.getCountry() == null || customer.getDemonym() != null) {
+                return true;
+            }
+            context.disableDefaultConstraintViolation();
+            context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                    .addPropertyNode("country")
+                    .addConstraintViolation();
+            return false;
+        }
+    }
+}
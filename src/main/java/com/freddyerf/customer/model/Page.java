@@ -0,0 +1,12 @@
+package com.freddyerf.customer.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param items      The items of this page, ordered by id.
+ * @param nextCursor The cursor to pass as {@code after} to get the next page, or null on the last page.
+ */
+public record Page<T>(List<T> items, Long nextCursor) {
+}
@@ -0,0 +1,12 @@
+package com.freddyerf.customer.model;
+
+import java.util.Map;
+
+/**
+ * Virtual threads that stayed pinned to their carrier thread longer than the reporting threshold.
+ * {@code topFrames} counts pinned events by the first application or library frame that held the carrier,
+ * which is usually a {@code synchronized} block or a native call.
+ */
+public record PinningStats(boolean monitoring, long thresholdMillis,
+                           long pinnedEvents, long totalPinnedMillis, Map<String, Long> topFrames) {
+}
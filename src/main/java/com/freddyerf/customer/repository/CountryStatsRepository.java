@@ -0,0 +1,70 @@
+package com.freddyerf.customer.repository;
+
+import com.freddyerf.customer.model.CountryStats;
+import com.freddyerf.customer.model.CountryStatsSlot;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@ApplicationScoped
+public class CountryStatsRepository implements PanacheRepositoryBase<CountryStatsSlot, CountryStatsSlot.Key> {
+
+    /**
+     * Slots each country's count is spread over. Writers of one country contend for a row
+     * only when they pick the same slot; changing it needs no migration, as reads sum every slot.
+     */
+    static final int SLOTS = 16;
+
+    // 1. Add delta to the customer count of a country, in one of its slots, creating the row if needed.
+    //    A single atomic upsert, so concurrent writers never lose an update.
+    public void addCustomers(String country, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        getEntityManager().createNativeQuery("""
+                        INSERT INTO country_stats_slot (country, slot, customers) VALUES (?1, ?2, ?3)
+                        ON CONFLICT (country, slot) DO UPDATE SET customers = country_stats_slot.customers + EXCLUDED.customers
+                        """)
+                .setParameter(1, country)
+                .setParameter(2, ThreadLocalRandom.current().nextInt(SLOTS))
+                .setParameter(3, delta)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CountryStatsSlot.class)
+                .executeUpdate();
+    }
+
+    // 1b. Apply the deltas of several countries at once, e.g. after a bulk insert
+    public void addCustomers(Map<String, Long> deltas) {
+        deltas.forEach(this::addCustomers);
+    }
+
+    // 2. Get the counts of every country with customers, largest first, each summed over its slots
+    public List<CountryStats> findAllWithCustomers() {
+        return getEntityManager().createQuery("""
+                        SELECT new com.freddyerf.customer.model.CountryStats(s.country, SUM(s.customers))
+                        FROM CountryStatsSlot s
+                        GROUP BY s.country
+                        HAVING SUM(s.customers) > 0
+                        ORDER BY SUM(s.customers) DESC, s.country
+                        """, CountryStats.class)
+                .getResultList();
+    }
+
+    // 3. Seed the counters from the customer table when they have never been computed, all in slot 0
+    public void initializeIfEmpty() {
+        getEntityManager().createNativeQuery("""
+                        INSERT INTO country_stats_slot (country, slot, customers)
+                        SELECT country, 0, COUNT(*) FROM customer
+                        WHERE NOT EXISTS (SELECT 1 FROM country_stats_slot)
+                        GROUP BY country
+                        ON CONFLICT (country, slot) DO NOTHING
+                        """)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CountryStatsSlot.class)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,81 @@
+package com.freddyerf.customer.repository;
+
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import com.freddyerf.customer.model.CustomerChange;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.query.NativeQuery;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@ApplicationScoped
+public class CustomerChangeRepository implements PanacheRepositoryBase<CustomerChange, UUID> {
+
+    // Advisory lock held by the instance relaying the outbox, for the duration of its transaction
+    private static final long RELAY_LOCK = 0x6375737463686731L;
+
+    // Positions are drawn in write order over a batch of unrelayed rows. Rows still being written
+    // by open transactions are not visible yet and are picked up by a later relay.
+    private static final String RELAY = """
+            UPDATE customer_change c SET position = n.position
+            FROM (SELECT id, nextval('customer_change_position_seq') AS position
+                  FROM (SELECT id FROM customer_change WHERE position IS NULL
+                        ORDER BY seq LIMIT ?1 FOR UPDATE) pending) n
+            WHERE c.id = n.id
+            """;
+
+    @Inject
+    CustomerMetrics metrics;
+
+    // 1. Outbox rows are written by Panache's persist method, in the transaction of the change
+
+    // 2. Get relayed changes after a position, in position order. Rows are only ever numbered
+    //    by one relay at a time, so once position n is visible no smaller position can appear.
+    public List<CustomerChange> findAfter(long position, int limit) {
+        long start = System.nanoTime();
+        try {
+            return find("position > ?1", Sort.by("position"), position)
+                    .range(0, limit - 1)
+                    .list();
+        } finally {
+            CustomerMetrics.recordSince(metrics.findChangesAfter, start);
+        }
+    }
+
+    // 2a. The position of the last relayed change, or 0 if the feed is empty
+    public long findLatestPosition() {
+        Long latest = getEntityManager().createQuery("SELECT max(c.position) FROM CustomerChange c", Long.class)
+                .getSingleResult();
+        return latest != null ? latest : 0L;
+    }
+
+    // 3. Number up to batchSize committed changes. Only the instance that gets the advisory lock
+    //    relays; the others return 0 and leave the rows to it.
+    public int relay(int batchSize) {
+        long start = System.nanoTime();
+        try {
+            Object locked = getEntityManager().createNativeQuery("SELECT pg_try_advisory_xact_lock(?1)")
+                    .setParameter(1, RELAY_LOCK)
+                    .getSingleResult();
+            if (!Boolean.TRUE.equals(locked)) {
+                return 0;
+            }
+            return getEntityManager().createNativeQuery(RELAY)
+                    .setParameter(1, batchSize)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedEntityClass(CustomerChange.class)
+                    .executeUpdate();
+        } finally {
+            CustomerMetrics.recordSince(metrics.relayChanges, start);
+        }
+    }
+
+    // 4. Delete relayed changes written before a cutoff
+    public long purgeBefore(Instant cutoff) {
+        return delete("position is not null and occurredAt < ?1", cutoff);
+    }
+}
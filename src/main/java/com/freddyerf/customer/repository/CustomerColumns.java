@@ -0,0 +1,60 @@
+package com.freddyerf.customer.repository;
+
+import com.freddyerf.customer.model.Customer;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * The columns of the customer table as the plain SQL repositories read them, which cannot use
+ * Hibernate's mapping. A column added to {@link Customer} is added here once, for all of them.
+ */
+final class CustomerColumns {
+
+    // A column, the customer property it holds and how a value read from it is set
+    record Column(String name, String property, boolean number, BiConsumer<Customer, Object> setter) {
+    }
+
+    // Reads one column of the current row, as a Long for number columns and a String for the others
+    @FunctionalInterface
+    interface Values<E extends Exception> {
+        Object read(String column, boolean number) throws E;
+    }
+
+    static final List<Column> ALL = List.of(
+            new Column("id", "id", true, (c, v) -> c.setId((Long) v)),
+            new Column("first_name", "firstName", false, (c, v) -> c.setFirstName((String) v)),
+            new Column("second_name", "secondName", false, (c, v) -> c.setSecondName((String) v)),
+            new Column("last_name", "lastName", false, (c, v) -> c.setLastName((String) v)),
+            new Column("second_last_name", "secondLastName", false, (c, v) -> c.setSecondLastName((String) v)),
+            new Column("email", "email", false, (c, v) -> c.setEmail((String) v)),
+            new Column("address", "address", false, (c, v) -> c.setAddress((String) v)),
+            new Column("phone", "phone", false, (c, v) -> c.setPhone((String) v)),
+            new Column("country", "country", false, (c, v) -> c.setCountry((String) v)),
+            new Column("demonym", "demonym", false, (c, v) -> c.setDemonym((String) v)),
+            new Column("version", "version", true, (c, v) -> c.setVersion((Long) v)));
+
+    // Select list of every column, in the order of ALL
+    static final String SELECT_LIST = ALL.stream().map(Column::name).collect(Collectors.joining(", "));
+
+    private CustomerColumns() {
+    }
+
+    static Column byProperty(String property) {
+        for (Column column : ALL) {
+            if (column.property().equals(property)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Unknown customer field: " + property);
+    }
+
+    static <E extends Exception> Customer toCustomer(Values<E> row) throws E {
+        Customer customer = new Customer();
+        for (Column column : ALL) {
+            column.setter().accept(customer, row.read(column.name(), column.number()));
+        }
+        return customer;
+    }
+}
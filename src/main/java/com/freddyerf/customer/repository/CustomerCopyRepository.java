@@ -0,0 +1,203 @@
+package com.freddyerf.customer.repository;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.service.CustomerCsv;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Bulk reads and writes of the customer table through PostgreSQL {@code COPY}, bypassing
+ * Hibernate: rows are streamed between the request and the database without ever becoming entities.
+ */
+@ApplicationScoped
+public class CustomerCopyRepository {
+
+    private static final String EXPORT_COLUMNS = """
+            id, first_name AS "firstName", second_name AS "secondName", last_name AS "lastName",
+            second_last_name AS "secondLastName", email, address, phone, country, demonym, version""";
+
+    // A customer row as a JSON document with the same property names as the API
+    private static final String CUSTOMER_JSON = """
+            json_strip_nulls(json_build_object(
+                'id', id, 'firstName', first_name, 'secondName', second_name, 'lastName', last_name,
+                'secondLastName', second_last_name, 'email', email, 'address', address, 'phone', phone,
+                'country', country, 'demonym', demonym, 'version', version))""";
+
+    // One JSON document per row. JSON escapes every control character, so a quote and
+    // delimiter that cannot occur keep COPY from escaping it.
+    private static final String EXPORT_JSON = "COPY (SELECT " + CUSTOMER_JSON + " FROM customer ORDER BY id)"
+            + " TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+
+    private static final String STAGED_COLUMNS =
+            "first_name, second_name, last_name, second_last_name, email, address, phone, country, demonym";
+
+    // Rows keep the ids they were staged with, so a row whose email is taken, ignoring case, is
+    // skipped by the unique email index and its id is not used. The per-country counters and the
+    // change outbox are written in the same statement, which returns how many customers were inserted.
+    private static final String INSERT_STAGED = """
+            WITH inserted AS (
+                INSERT INTO customer (id, %1$s, version)
+                SELECT id, %1$s, 0 FROM customer_import
+                ON CONFLICT DO NOTHING
+                RETURNING *
+            ), changes AS (
+                INSERT INTO customer_change (id, customer_id, type, version, occurred_at, customer)
+                SELECT gen_random_uuid(), id, 'CREATED', version, now(), %2$s::text FROM inserted
+            ), stats AS (
+                INSERT INTO country_stats_slot (country, slot, customers)
+                SELECT country, floor(random() * %3$d)::int, count(*) FROM inserted GROUP BY country
+                ON CONFLICT (country, slot) DO UPDATE SET customers = country_stats_slot.customers + EXCLUDED.customers
+            )
+            SELECT count(*) FROM inserted
+            """.formatted(STAGED_COLUMNS, CUSTOMER_JSON, CountryStatsRepository.SLOTS);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    Session session;
+
+    // 1. Export every customer ordered by id as CSV with a header row
+    public void exportCsv(OutputStream out) throws IOException {
+        copyOut("COPY (SELECT " + EXPORT_COLUMNS + " FROM customer ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER)", out);
+    }
+
+    // 2. Export every customer ordered by id as newline-delimited JSON
+    public void exportNdjson(OutputStream out) throws IOException {
+        copyOut(EXPORT_JSON, out);
+    }
+
+    // 3. Insert customers that are already validated and enriched. They are copied into a
+    //    temporary table, then moved into customer in one statement. Their ids come from
+    //    Hibernate's own generator, so they never collide with those of customers it persists;
+    //    up to count ids are drawn before COPY starts, as the generator may query customer_seq
+    //    on the same connection. Must run inside a transaction, which the temporary table does
+    //    not outlive. Returns how many were inserted, which excludes those whose email was taken.
+    public long importCustomers(Iterator<Customer> customers, long count) {
+        IdRanges ids = allocateIds(count);
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE customer_import (id bigint, "
+                        + STAGED_COLUMNS.replace(",", " text,") + " text) ON COMMIT DROP");
+            }
+            long staged = stage(connection.unwrap(PGConnection.class), customers, ids);
+            if (staged == 0) {
+                return 0;
+            }
+            try (Statement insert = connection.createStatement();
+                 ResultSet inserted = insert.executeQuery(INSERT_STAGED)) {
+                inserted.next();
+                return inserted.getLong(1);
+            }
+        } catch (SQLException | IOException e) {
+            throw new PersistenceException("Bulk import failed", e);
+        }
+    }
+
+    // 4. Rows written behind Hibernate's back are not seen by its query cache invalidation
+    public void evictCountryQueries() {
+        sessionFactory.getCache().evictQueryRegion(CustomerRepository.BY_COUNTRY_REGION);
+    }
+
+    private long stage(PGConnection connection, Iterator<Customer> customers, IdRanges ids)
+            throws SQLException, IOException {
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection,
+                "COPY customer_import (id, " + STAGED_COLUMNS + ") FROM STDIN WITH (FORMAT csv)");
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8));
+            while (customers.hasNext()) {
+                Customer customer = customers.next();
+                CustomerCsv.writeRecord(writer, Arrays.asList(Long.toString(ids.next()), customer.getFirstName(),
+                        customer.getSecondName(), customer.getLastName(), customer.getSecondLastName(),
+                        customer.getEmail(), customer.getAddress(), customer.getPhone(), customer.getCountry(),
+                        customer.getDemonym()));
+            }
+            writer.flush();
+            return copy.endCopy();
+        } catch (IOException | RuntimeException e) {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            throw e;
+        }
+    }
+
+    // The pooled optimizer hands out ids in runs of consecutive values, so they are kept as runs
+    private IdRanges allocateIds(long count) {
+        SharedSessionContractImplementor current = session.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) current.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Customer.class).getGenerator();
+        IdRanges ids = new IdRanges();
+        for (long i = 0; i < count; i++) {
+            ids.add((Long) generator.generate(current, null, null, EventType.INSERT));
+        }
+        return ids;
+    }
+
+    private void copyOut(String sql, OutputStream out) throws IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+        } catch (SQLException e) {
+            throw new PersistenceException("Bulk export failed", e);
+        }
+    }
+
+    // Allocated ids, added in the order they were generated and taken back in that order
+    private static final class IdRanges {
+
+        private long[] starts = new long[16];
+        private int[] lengths = new int[16];
+        private int size;
+        private int current;
+        private int taken;
+
+        void add(long id) {
+            if (size > 0 && starts[size - 1] + lengths[size - 1] == id) {
+                lengths[size - 1]++;
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            starts[size] = id;
+            lengths[size++] = 1;
+        }
+
+        long next() {
+            if (current < size && taken == lengths[current]) {
+                current++;
+                taken = 0;
+            }
+            if (current == size) {
+                throw new IllegalStateException("More customers than allocated ids");
+            }
+            return starts[current] + taken++;
+        }
+    }
+}
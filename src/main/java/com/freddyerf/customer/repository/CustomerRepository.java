@@ -1,26 +1,290 @@
 package com.freddyerf.customer.repository;
 
+import com.freddyerf.customer.metrics.CustomerMetrics;
 import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.EntityCacheStats;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class CustomerRepository implements PanacheRepository<Customer> {
 
+    /**
+     * Query cache region of the by-country lookups, configured under
+     * {@code quarkus.hibernate-orm.cache."customer-by-country"}.
+     */
+    public static final String BY_COUNTRY_REGION = "customer-by-country";
+
+    /**
+     * Customer properties that can be selected by the field projections, in serialization order.
+     */
+    public static final List<String> PROJECTABLE_FIELDS = CustomerColumns.ALL.stream()
+            .map(CustomerColumns.Column::property)
+            .toList();
+
+    /**
+     * Unique index on the lower-cased email, created by {@link CustomerSchema}.
+     */
+    public static final String EMAIL_INDEX = "uq_customer_email";
+
+    @Inject
+    CustomerMetrics metrics;
+
     // 1. Creation is handled by Panache's persist method implicitly
 
-    // 2. Get all existing customers is handled by Panache
+    // 2. Get existing customers one page at a time. Keyset pagination: the primary key
+    //    index is walked from the cursor, so deep pages cost the same as the first one.
+    public List<Customer> findPage(long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return find("id > ?1", Sort.by("id"), afterId)
+                    .range(0, limit - 1)
+                    .list();
+        } finally {
+            CustomerMetrics.recordSince(metrics.findPage, start);
+        }
+    }
+
+    // 2a. Same page, selecting only the given properties. Rows come back as plain values, so
+    //     no entity is instantiated or managed. Fields must come from PROJECTABLE_FIELDS.
+    public List<Map<String, Object>> findPageFields(List<String> fields, long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return project(fields, "c.id > ?1", limit, afterId).getResultList().stream()
+                    .map(row -> toMap(fields, row))
+                    .toList();
+        } finally {
+            CustomerMetrics.recordSince(metrics.findPageFields, start);
+        }
+    }
+
+    // 2b. Stream every customer ordered by id through a server-side cursor. Rows are read
+    //     fetchSize at a time and loaded read-only; must be consumed inside a transaction.
+    public Stream<Customer> streamAll(int fetchSize) {
+        return findAll(Sort.by("id"))
+                .withHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .withHint(HibernateHints.HINT_READ_ONLY, true)
+                // A full scan must not push the hot entries out of the second-level cache
+                .withHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .stream();
+    }
+
+    // 2c. Stream every email through a server-side cursor; must be consumed inside a transaction
+    public Stream<String> streamEmails(int fetchSize) {
+        return getEntityManager().createQuery("SELECT c.email FROM Customer c", String.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    // 3. Get existing customers who belong to a specific country, one page at a time.
+    //    Results are kept in the query cache; Hibernate invalidates them on any customer write.
+    public List<Customer> findByCountry(String country, long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return find("country = ?1 and id > ?2", Sort.by("id"), country, afterId)
+                    .withHint(HibernateHints.HINT_CACHEABLE, true)
+                    .withHint(HibernateHints.HINT_CACHE_REGION, BY_COUNTRY_REGION)
+                    .range(0, limit - 1)
+                    .list();
+        } finally {
+            CustomerMetrics.recordSince(metrics.findByCountry, start);
+        }
+    }
+
+    // 3a. Same page of a country, selecting only the given properties; cached in the same region
+    public List<Map<String, Object>> findByCountryFields(String country, List<String> fields, long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return project(fields, "c.country = ?1 and c.id > ?2", limit, country, afterId)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
+                    .setHint(HibernateHints.HINT_CACHE_REGION, BY_COUNTRY_REGION)
+                    .getResultList().stream()
+                    .map(row -> toMap(fields, row))
+                    .toList();
+        } finally {
+            CustomerMetrics.recordSince(metrics.findByCountryFields, start);
+        }
+    }
+
+    // 4. Get a specific client by its identifier. Same lookup as Panache's (second-level cache
+    //    first), declared here only so it can be timed.
+    @Override
+    public Customer findById(Long id) {
+        long start = System.nanoTime();
+        try {
+            return getEntityManager().find(Customer.class, id);
+        } finally {
+            CustomerMetrics.recordSince(metrics.findById, start);
+        }
+    }
+
+    // 4a. Whether findById would be served from the second-level cache without a query
+    public boolean isCached(Long id) {
+        return getEntityManager().getEntityManagerFactory().getCache().contains(Customer.class, id);
+    }
 
-    // 3. Get all existing customers who belong to a specific country
-    public List<Customer> findByCountry(String country) {
-        return list("country", country);
+    // 4b. Case-insensitive prefix search over names, email and phone, one page at a time ordered by id.
+    //     Every searched column has a trigram index on its lower-cased value (see CustomerSchema).
+    public List<Customer> searchByPrefix(String prefix, long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return getEntityManager().unwrap(Session.class).createNativeQuery("""
+                            SELECT * FROM customer
+                            WHERE (lower(first_name) LIKE ?1 OR lower(last_name) LIKE ?1
+                                   OR lower(second_last_name) LIKE ?1 OR lower(email) LIKE ?1 OR lower(phone) LIKE ?1)
+                              AND id > ?2
+                            ORDER BY id
+                            LIMIT ?3
+                            """, Customer.class)
+                    .setParameter(1, likePrefix(prefix))
+                    .setParameter(2, afterId)
+                    .setParameter(3, limit)
+                    .getResultList();
+        } finally {
+            CustomerMetrics.recordSince(metrics.searchByPrefix, start);
+        }
     }
 
-    // 4. Get a specific client by its identifier is handled by Panache
+    // 4c. Typo-tolerant search: customers with a field similar to the query (pg_trgm's % operator,
+    //     served by the same indexes), most similar first
+    public List<Customer> searchFuzzy(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return getEntityManager().unwrap(Session.class).createNativeQuery("""
+                            SELECT * FROM customer
+                            WHERE lower(first_name) % ?1 OR lower(last_name) % ?1
+                               OR lower(second_last_name) % ?1 OR lower(email) % ?1 OR lower(phone) % ?1
+                            ORDER BY GREATEST(similarity(lower(first_name), ?1), similarity(lower(last_name), ?1),
+                                              similarity(lower(second_last_name), ?1), similarity(lower(email), ?1),
+                                              similarity(lower(phone), ?1)) DESC, id
+                            LIMIT ?2
+                            """, Customer.class)
+                    .setParameter(1, query.toLowerCase(Locale.ROOT))
+                    .setParameter(2, limit)
+                    .getResultList();
+        } finally {
+            CustomerMetrics.recordSince(metrics.searchFuzzy, start);
+        }
+    }
+
+    // 4d. Get the customer with an email, ignoring case, through the unique index on lower(email)
+    public Customer findByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return find("lower(email) = lower(?1)", email).firstResult();
+        } finally {
+            CustomerMetrics.recordSince(metrics.findByEmail, start);
+        }
+    }
+
+    // 4e. Whether a customer has an email, ignoring case, without loading it
+    public boolean existsByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return !getEntityManager().createQuery("SELECT 1 FROM Customer c WHERE lower(c.email) = lower(?1)", Integer.class)
+                    .setParameter(1, email)
+                    .setMaxResults(1)
+                    .getResultList()
+                    .isEmpty();
+        } finally {
+            CustomerMetrics.recordSince(metrics.existsByEmail, start);
+        }
+    }
+
+    // 4f. Whether a write failed because another customer already has the email
+    public static boolean isDuplicateEmail(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof ConstraintViolationException violation
+                    && EMAIL_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     // 5. Update is handled by Panache's entity management implicitly
 
     // 6. Delete a customer by their ID is handled by Panache
 
+    // 7. Second-level and query cache statistics of the customer regions
+    public EntityCacheStats cacheStats() {
+        Statistics statistics = getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        CacheRegionStatistics entities = region(() -> statistics.getDomainDataRegionStatistics(Customer.class.getName()));
+        CacheRegionStatistics queries = region(() -> statistics.getQueryRegionStatistics(BY_COUNTRY_REGION));
+        return new EntityCacheStats(
+                statistics.isStatisticsEnabled(),
+                entities != null ? entities.getHitCount() : 0,
+                entities != null ? entities.getMissCount() : 0,
+                entities != null ? entities.getPutCount() : 0,
+                entities != null ? entities.getElementCountInMemory() : 0,
+                queries != null ? queries.getHitCount() : 0,
+                queries != null ? queries.getMissCount() : 0,
+                queries != null ? queries.getPutCount() : 0);
+    }
+
+    // Selects the given properties, ordered by id. The names are checked against the whitelist
+    // because they are concatenated into the query.
+    private TypedQuery<Tuple> project(List<String> fields, String where, int limit, Object... params) {
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (String field : fields) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown customer field: " + field);
+            }
+            if (select.length() > "SELECT ".length()) {
+                select.append(", ");
+            }
+            select.append("c.").append(field).append(" AS ").append(field);
+        }
+        TypedQuery<Tuple> query = getEntityManager().createQuery(
+                select + " FROM Customer c WHERE " + where + " ORDER BY c.id", Tuple.class);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        return query.setMaxResults(limit);
+    }
+
+    private static Map<String, Object> toMap(List<String> fields, Tuple row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            values.put(fields.get(i), row.get(i));
+        }
+        return values;
+    }
+
+    // LIKE pattern matching values that start with the prefix, ignoring case; wildcards in the prefix match literally
+    static String likePrefix(String prefix) {
+        return prefix.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    // Hibernate throws for regions that do not exist yet instead of returning empty statistics
+    private static CacheRegionStatistics region(Supplier<CacheRegionStatistics> lookup) {
+        try {
+            return lookup.get();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,157 @@
+package com.freddyerf.customer.repository;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Schema housekeeping that {@code database.generation=update} cannot do on its own.
+ * Runs once at startup, after Hibernate has updated the schema; indexes that may take long
+ * to build on a populated table are built in the background without blocking writes.
+ */
+@ApplicationScoped
+public class CustomerSchema {
+
+    private static final Logger LOG = Logger.getLogger(CustomerSchema.class);
+
+    /**
+     * Columns searched by {@link CustomerRepository#searchByPrefix} and {@link CustomerRepository#searchFuzzy},
+     * each with a trigram index on its lower-cased value.
+     */
+    static final List<String> SEARCH_COLUMNS = List.of("first_name", "last_name", "second_last_name", "email", "phone");
+
+    // Key of the session advisory lock held by the one instance building indexes
+    private static final long INDEX_BUILD_LOCK = 0x637573746f6d6572L;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    CountryStatsRepository countryStatsRepository;
+
+    void onStart(@Observes StartupEvent event) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            alignIdSequence();
+            countryStatsRepository.initializeIfEmpty();
+            createChangeFeedObjects();
+        });
+        try {
+            QuarkusTransaction.requiringNew().run(this::createEmailIndex);
+        } catch (PersistenceException e) {
+            LOG.warnf("Could not create the unique email index, duplicate emails are only rejected on create: %s", e.getMessage());
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() ->
+                    entityManager.createNativeQuery("CREATE EXTENSION IF NOT EXISTS pg_trgm").executeUpdate());
+        } catch (PersistenceException e) {
+            LOG.warnf("Could not create the pg_trgm extension, fuzzy search will fail: %s", e.getMessage());
+        }
+        Thread indexes = new Thread(this::createSearchIndexes, "customer-search-indexes");
+        indexes.setDaemon(true);
+        indexes.start();
+    }
+
+    // Customers created while ids came from an identity column are ahead of the new
+    // sequence; move the sequence past them so generated ids never collide.
+    private void alignIdSequence() {
+        entityManager.createNativeQuery("""
+                        SELECT setval('customer_seq', m.max_id)
+                        FROM (SELECT MAX(id) AS max_id FROM customer) m
+                        WHERE m.max_id >= (SELECT last_value FROM customer_seq)
+                        """)
+                .getResultList();
+    }
+
+    // Positions of the change feed are drawn by the relay from their own sequence, and the
+    // relay finds the rows it has not numbered yet through a partial index that only holds them.
+    private void createChangeFeedObjects() {
+        entityManager.createNativeQuery("CREATE SEQUENCE IF NOT EXISTS customer_change_position_seq").executeUpdate();
+        entityManager.createNativeQuery("CREATE INDEX IF NOT EXISTS idx_customer_change_pending"
+                        + " ON customer_change (seq) WHERE position IS NULL")
+                .executeUpdate();
+    }
+
+    // Emails are unique regardless of case. Fails, and leaves the table without the index, while
+    // customers created before it existed share an email; those have to be merged by hand first.
+    private void createEmailIndex() {
+        entityManager.createNativeQuery("CREATE UNIQUE INDEX IF NOT EXISTS " + CustomerRepository.EMAIL_INDEX
+                        + " ON customer (lower(email))")
+                .executeUpdate();
+    }
+
+    // Trigram indexes serve both case-insensitive prefix matches (LIKE 'abc%') and similarity
+    // matches (%). CREATE INDEX CONCURRENTLY lets writes go on while a large table is indexed, but
+    // cannot run in a transaction, so this uses its own autocommit connection. Instances starting
+    // together do not race: only the one holding the advisory lock builds, the others skip.
+    // Until an index exists, search on its column scans the table.
+    private void createSearchIndexes() {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            if (!tryLock(connection)) {
+                LOG.info("Another instance is building the customer search indexes");
+                return;
+            }
+            try {
+                for (String column : SEARCH_COLUMNS) {
+                    createIndexConcurrently(connection, "idx_customer_" + column + "_trgm",
+                            "ON customer USING gin (lower(" + column + ") gin_trgm_ops)");
+                }
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT pg_advisory_unlock(" + INDEX_BUILD_LOCK + ")");
+                }
+            }
+        } catch (SQLException e) {
+            LOG.warnf("Could not create the customer search indexes, search will scan the table: %s", e.getMessage());
+        }
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet locked = statement.executeQuery("SELECT pg_try_advisory_lock(" + INDEX_BUILD_LOCK + ")")) {
+            return locked.next() && locked.getBoolean(1);
+        }
+    }
+
+    // A concurrent build that failed, e.g. because the instance stopped, leaves an invalid index
+    // behind that IF NOT EXISTS would keep; it is dropped and built again.
+    private static void createIndexConcurrently(Connection connection, String name, String definition) throws SQLException {
+        Boolean valid = null;
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?")) {
+            query.setString(1, name);
+            try (ResultSet index = query.executeQuery()) {
+                if (index.next()) {
+                    valid = index.getBoolean(1);
+                }
+            }
+        }
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (valid != null) {
+                statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            }
+            long start = System.nanoTime();
+            statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+            LOG.infof("Built index %s in %d ms", name, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
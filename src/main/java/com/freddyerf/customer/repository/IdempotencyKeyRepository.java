@@ -0,0 +1,49 @@
+package com.freddyerf.customer.repository;
+
+import com.freddyerf.customer.model.IdempotencyKey;
+import com.freddyerf.customer.model.IdempotentResponse;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.query.NativeQuery;
+
+import java.time.Instant;
+
+@ApplicationScoped
+public class IdempotencyKeyRepository implements PanacheRepositoryBase<IdempotencyKey, String> {
+
+    // 1. Claim a key for a request, in a single atomic upsert. Succeeds if the key is new, or if
+    //    a request with the same fingerprint claimed it before staleBefore and never completed,
+    //    e.g. because its instance died. Returns whether the caller now owns the key.
+    public boolean claim(String key, String fingerprint, Instant now, Instant staleBefore) {
+        return getEntityManager().createNativeQuery("""
+                        INSERT INTO idempotency_key (request_key, fingerprint, claimed_at) VALUES (?1, ?2, ?3)
+                        ON CONFLICT (request_key) DO UPDATE SET claimed_at = EXCLUDED.claimed_at
+                        WHERE idempotency_key.status IS NULL
+                          AND idempotency_key.fingerprint = EXCLUDED.fingerprint
+                          AND idempotency_key.claimed_at < ?4
+                        """)
+                .setParameter(1, key)
+                .setParameter(2, fingerprint)
+                .setParameter(3, now)
+                .setParameter(4, staleBefore)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(IdempotencyKey.class)
+                .executeUpdate() == 1;
+    }
+
+    // 2. Store the response of the request that owns the key
+    public void complete(String key, IdempotentResponse response) {
+        update("status = ?1, body = ?2, etag = ?3 where requestKey = ?4",
+                response.status(), response.body(), response.etag(), key);
+    }
+
+    // 3. Give a key up, so a retry runs the request again
+    public void release(String key) {
+        deleteById(key);
+    }
+
+    // 4. Delete keys claimed before a cutoff
+    public long purgeBefore(Instant cutoff) {
+        return delete("claimedAt < ?1", cutoff);
+    }
+}
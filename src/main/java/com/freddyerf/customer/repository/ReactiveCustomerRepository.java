@@ -0,0 +1,60 @@
+package com.freddyerf.customer.repository;
+
+import com.freddyerf.customer.model.Customer;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Non-blocking reads of the customer table through the reactive PostgreSQL client.
+ * Hibernate ORM and Hibernate Reactive cannot share one application, so these queries are
+ * plain SQL against the table the ORM maps, and return detached {@link Customer} instances.
+ */
+@ApplicationScoped
+public class ReactiveCustomerRepository {
+
+    private static final String COLUMNS = CustomerColumns.SELECT_LIST;
+
+    @Inject
+    PgPool client;
+
+    // 1. Get existing customers one page at a time (keyset pagination on the primary key)
+    public Uni<List<Customer>> findPage(long afterId, int limit) {
+        return client.preparedQuery("SELECT " + COLUMNS + " FROM customer WHERE id > $1 ORDER BY id LIMIT $2")
+                .execute(Tuple.of(afterId, limit))
+                .map(ReactiveCustomerRepository::toCustomers);
+    }
+
+    // 2. Get existing customers who belong to a specific country, one page at a time
+    public Uni<List<Customer>> findByCountry(String country, long afterId, int limit) {
+        return client.preparedQuery("SELECT " + COLUMNS + " FROM customer WHERE country = $1 AND id > $2 ORDER BY id LIMIT $3")
+                .execute(Tuple.of(country, afterId, limit))
+                .map(ReactiveCustomerRepository::toCustomers);
+    }
+
+    // 3. Get a specific client by its identifier
+    public Uni<Customer> findById(long id) {
+        return client.preparedQuery("SELECT " + COLUMNS + " FROM customer WHERE id = $1")
+                .execute(Tuple.of(id))
+                .map(rows -> rows.iterator().hasNext() ? toCustomer(rows.iterator().next()) : null);
+    }
+
+    private static List<Customer> toCustomers(RowSet<Row> rows) {
+        List<Customer> customers = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            customers.add(toCustomer(row));
+        }
+        return customers;
+    }
+
+    private static Customer toCustomer(Row row) {
+        return CustomerColumns.toCustomer((column, number) -> number ? (Object) row.getLong(column) : row.getString(column));
+    }
+}
@@ -0,0 +1,150 @@
+package com.freddyerf.customer.repository;
+
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import com.freddyerf.customer.model.Customer;
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads of the customer table from the {@code replica} datasource, a PostgreSQL read replica.
+ * Hibernate ORM is bound to the primary, so these are plain SQL queries against the table it
+ * maps, returning detached {@link Customer} instances. Results may lag behind the primary by
+ * the replication delay.
+ */
+@ApplicationScoped
+public class ReplicaCustomerRepository {
+
+    private static final String COLUMNS = CustomerColumns.SELECT_LIST;
+
+    // The searched columns, as in CustomerRepository; each has a trigram index on its lower-cased value
+    private static final String SEARCH_PREFIX = """
+            SELECT %s FROM customer, (SELECT ?::text AS q) p
+            WHERE (lower(first_name) LIKE p.q OR lower(last_name) LIKE p.q
+                   OR lower(second_last_name) LIKE p.q OR lower(email) LIKE p.q OR lower(phone) LIKE p.q)
+              AND id > ?
+            ORDER BY id
+            LIMIT ?
+            """.formatted(COLUMNS);
+
+    private static final String SEARCH_FUZZY = """
+            SELECT %s FROM customer, (SELECT ?::text AS q) p
+            WHERE lower(first_name) %% p.q OR lower(last_name) %% p.q
+               OR lower(second_last_name) %% p.q OR lower(email) %% p.q OR lower(phone) %% p.q
+            ORDER BY GREATEST(similarity(lower(first_name), p.q), similarity(lower(last_name), p.q),
+                              similarity(lower(second_last_name), p.q), similarity(lower(email), p.q),
+                              similarity(lower(phone), p.q)) DESC, id
+            LIMIT ?
+            """.formatted(COLUMNS);
+
+    @Inject
+    @DataSource("replica")
+    AgroalDataSource replica;
+
+    @Inject
+    CustomerMetrics metrics;
+
+    // 1. Get existing customers one page at a time (keyset pagination on the primary key)
+    public List<Customer> findPage(long afterId, int limit) {
+        return query(metrics.replicaFindPage, "SELECT " + COLUMNS + " FROM customer WHERE id > ? ORDER BY id LIMIT ?",
+                ReplicaCustomerRepository::toCustomer, afterId, limit);
+    }
+
+    // 1a. Same page, selecting only the given properties. Fields must come from CustomerRepository.PROJECTABLE_FIELDS.
+    public List<Map<String, Object>> findPageFields(List<String> fields, long afterId, int limit) {
+        return project(metrics.replicaFindPageFields, fields, "id > ?", afterId, limit);
+    }
+
+    // 2. Get existing customers who belong to a specific country, one page at a time
+    public List<Customer> findByCountry(String country, long afterId, int limit) {
+        return query(metrics.replicaFindByCountry,
+                "SELECT " + COLUMNS + " FROM customer WHERE country = ? AND id > ? ORDER BY id LIMIT ?",
+                ReplicaCustomerRepository::toCustomer, country, afterId, limit);
+    }
+
+    // 2a. Same page of a country, selecting only the given properties
+    public List<Map<String, Object>> findByCountryFields(String country, List<String> fields, long afterId, int limit) {
+        return project(metrics.replicaFindByCountryFields, fields, "country = ? AND id > ?", country, afterId, limit);
+    }
+
+    // 3. Get a specific client by its identifier
+    public Customer findById(long id) {
+        List<Customer> found = query(metrics.replicaFindById, "SELECT " + COLUMNS + " FROM customer WHERE id = ?",
+                ReplicaCustomerRepository::toCustomer, id);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    // 4. Case-insensitive prefix search over names, email and phone, one page at a time ordered by id
+    public List<Customer> searchByPrefix(String prefix, long afterId, int limit) {
+        return query(metrics.replicaSearchByPrefix, SEARCH_PREFIX, ReplicaCustomerRepository::toCustomer,
+                CustomerRepository.likePrefix(prefix), afterId, limit);
+    }
+
+    // 5. Typo-tolerant search, most similar first
+    public List<Customer> searchFuzzy(String query, int limit) {
+        return query(metrics.replicaSearchFuzzy, SEARCH_FUZZY, ReplicaCustomerRepository::toCustomer,
+                query.toLowerCase(Locale.ROOT), limit);
+    }
+
+    // Selects the given properties, ordered by id. The names are concatenated into the query, so
+    // only those of known columns are accepted.
+    private List<Map<String, Object>> project(Timer timer, List<String> fields, String where, Object... params) {
+        List<CustomerColumns.Column> columns = fields.stream().map(CustomerColumns::byProperty).toList();
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (CustomerColumns.Column column : columns) {
+            if (select.length() > "SELECT ".length()) {
+                select.append(", ");
+            }
+            select.append(column.name());
+        }
+        return query(timer, select + " FROM customer WHERE " + where + " ORDER BY id LIMIT ?", row -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (CustomerColumns.Column column : columns) {
+                values.put(column.property(), column.number() ? (Object) row.getLong(column.name()) : row.getString(column.name()));
+            }
+            return values;
+        }, params);
+    }
+
+    private <T> List<T> query(Timer timer, String sql, RowMapper<T> mapper, Object... params) {
+        long start = System.nanoTime();
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                List<T> results = new ArrayList<>();
+                while (rows.next()) {
+                    results.add(mapper.map(rows));
+                }
+                return results;
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Read replica query failed", e);
+        } finally {
+            CustomerMetrics.recordSince(timer, start);
+        }
+    }
+
+    private static Customer toCustomer(ResultSet row) throws SQLException {
+        return CustomerColumns.toCustomer((column, number) -> number ? (Object) row.getLong(column) : row.getString(column));
+    }
+
+    private interface RowMapper<T> {
+        T map(ResultSet row) throws SQLException;
+    }
+}
@@ -0,0 +1,115 @@
+package com.freddyerf.customer.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter of strings: answers whether a string might have been added, with no
+ * false negatives and a false positive rate chosen at construction. Strings are hashed once into
+ * 64 bits, from which every probe position is derived, so a check allocates nothing.
+ * Safe for concurrent use; adds never block checks.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    // Bits are set with a compare-and-set loop, so concurrent adds to the same word are never lost
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * Creates an empty filter sized for a number of strings.
+     *
+     * @param expectedInsertions How many strings the filter is expected to hold.
+     * @param falsePositiveRate The rate of false positives once it holds that many, between 0 and 1 exclusive.
+     * @throws IllegalArgumentException if a parameter is out of range.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bits = wordCount * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * LN2));
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value The string to add.
+     */
+    public void add(CharSequence value) {
+        long hash = hash(value);
+        long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a string might have been added.
+     *
+     * @param value The string to check.
+     * @return false if the string was definitely never added, true if it might have been.
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = hash(value);
+        long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The size of the filter in bits.
+     */
+    public long bitSize() {
+        return bits;
+    }
+
+    /**
+     * @return The number of bits set per string.
+     */
+    public int hashCount() {
+        return hashes;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finished with the MurmurHash3 mixer
+    private static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // The second hash of double hashing; odd, so probes never repeat a position early
+    private static long step(long hash) {
+        return mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
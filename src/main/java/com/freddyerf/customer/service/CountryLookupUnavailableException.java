@@ -0,0 +1,12 @@
+package com.freddyerf.customer.service;
+
+/**
+ * Thrown when a country code could not be looked up because the REST Countries API failed
+ * and no cached demonym was available; the code itself may well be valid.
+ */
+public class CountryLookupUnavailableException extends RuntimeException {
+
+    public CountryLookupUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
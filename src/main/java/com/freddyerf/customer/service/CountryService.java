@@ -1,72 +1,167 @@
 package com.freddyerf.customer.service;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.jboss.logging.Logger;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Pattern;
+
+@Startup
 @ApplicationScoped
 public class CountryService {
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private static final String API_URL = "https://restcountries.com/v3.1/alpha/";
-    private static final String API_FIELDS = "demonyms"; // Replace with your API key
+    private static final Logger LOG = Logger.getLogger(CountryService.class);
+    private static final Pattern COUNTRY_CODE = Pattern.compile("[A-Z0-9]{2,3}");
+    private static final DemonymTable TABLE = DemonymTable.bundled();
+
+    @Inject
+    RestCountriesClient restCountriesClient;
+
+    @Inject
+    CustomerMetrics metrics;
+
+    @ConfigProperty(name = "country.lookup.mode", defaultValue = "TABLE_THEN_REMOTE")
+    DemonymLookupMode lookupMode;
+
+    @ConfigProperty(name = "country.cache.max-size", defaultValue = "512")
+    int cacheMaxSize;
+
+    @ConfigProperty(name = "country.cache.ttl", defaultValue = "P7D")
+    Duration cacheTtl;
 
+    @ConfigProperty(name = "country.cache.negative-ttl", defaultValue = "PT1H")
+    Duration cacheNegativeTtl;
 
+    @ConfigProperty(name = "country.cache.max-stale", defaultValue = "P30D")
+    Duration cacheMaxStale;
+
+    private DemonymCache cache;
+
+    @PostConstruct
+    void init() {
+        cache = new DemonymCache(cacheMaxSize, cacheTtl, cacheNegativeTtl, cacheMaxStale);
+        metrics.bindDemonymCache(cache);
+    }
 
     /**
-     * Fetches the demonym for a given country code using the REST Countries API.
-     * This method constructs an HTTP request to query the API for the demonym information,
-     * specifically targeting the English male demonym.
+     * Fetches the demonym for a given country code.
+     * Depending on {@code country.lookup.mode} the code is looked up in the bundled table,
+     * in the REST Countries API, or in the table first with the API as a fallback.
+     * API results are cached, including unknown codes, and concurrent lookups of the
+     * same code share a single request to the API. While the API is slow, failing or
+     * rejected by the circuit breaker, an expired cached demonym is served instead
+     * (up to {@code country.cache.max-stale}); without one the lookup returns null.
      *
      * @param countryCode The ISO 3166-1 2-letter country code.
      * @return The English male demonym for the country, or null if not found or in case of an error.
-     * @throws RuntimeException if the URI syntax is incorrect.
      */
     public String getDemonymByCountryCode(String countryCode) {
         try {
-            String url = API_URL + countryCode + "?fields=" + API_FIELDS;
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI(url))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                Gson gson = new Gson();
-                JsonElement element = gson.fromJson(response.body(), JsonElement.class);
-                String maleDemonym = element.getAsJsonObject()
-                        .get("demonyms")
-                        .getAsJsonObject()
-                        .get("eng")
-                        .getAsJsonObject()
-                        .get("m")
-                        .getAsString();
-
-                return maleDemonym;
-            } else {
-                System.err.println("Error fetching demonym: " + response.statusCode());
-            }
-            return null; // Demonym not found
+            return findDemonym(countryCode);
         }
-        catch (MalformedURLException | InterruptedException e) {
-            System.err.println("Invalid URL: " + e.getMessage());
+        catch (CountryLookupUnavailableException e) {
+            LOG.warn(e.getMessage());
             return null;
         }
-        catch (IOException e) {
-            System.err.println("Error during HTTP request: " + e.getMessage());
+    }
+
+    /**
+     * Fetches the demonym for a given country code like {@link #getDemonymByCountryCode}, but
+     * tells an unknown code apart from a lookup that could not be made.
+     *
+     * @param countryCode The ISO 3166-1 2-letter country code.
+     * @return The English male demonym for the country, or null if the code is not a known country.
+     * @throws CountryLookupUnavailableException if the API failed and no cached demonym could be served instead.
+     */
+    public String findDemonym(String countryCode) {
+        if (countryCode == null) {
             return null;
         }
-        catch (URISyntaxException e) {
-            throw new RuntimeException(e);
+        long start = System.nanoTime();
+        if (lookupMode != DemonymLookupMode.REMOTE_ONLY) {
+            String demonym = TABLE.lookup(countryCode);
+            if (demonym != null || lookupMode == DemonymLookupMode.TABLE_ONLY) {
+                CustomerMetrics.recordSince(metrics.countryLookupTable, start);
+                return demonym;
+            }
+        }
+        String code = remoteCode(countryCode);
+        if (code == null) {
+            return null; // Not a country code, no point asking the API
+        }
+        // Only a lookup that made the request is timed as remote; the others were answered by the cache
+        boolean[] fetched = new boolean[1];
+        try {
+            return cache.get(code, c -> {
+                fetched[0] = true;
+                return restCountriesClient.fetchDemonym(c);
+            });
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CountryLookupUnavailableException("Interrupted while fetching demonym for " + code, e);
         }
+        catch (IOException e) {
+            throw new CountryLookupUnavailableException("Error fetching demonym for " + code + ": " + e.getMessage(), e);
+        }
+        catch (FaultToleranceException e) {
+            throw new CountryLookupUnavailableException("Country API unavailable for " + code + ": " + e.getMessage(), e);
+        }
+        finally {
+            CustomerMetrics.recordSince(fetched[0] ? metrics.countryLookupRemote : metrics.countryLookupCache, start);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #getDemonymByCountryCode}. Table hits complete immediately;
+     * API lookups use the asynchronous HTTP client, so no thread waits on the network.
+     *
+     * @param countryCode The ISO 3166-1 2-letter country code.
+     * @return A future of the English male demonym, or of null if not found or in case of an error.
+     */
+    public CompletionStage<String> getDemonymByCountryCodeAsync(String countryCode) {
+        if (countryCode == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (lookupMode != DemonymLookupMode.REMOTE_ONLY) {
+            String demonym = TABLE.lookup(countryCode);
+            if (demonym != null || lookupMode == DemonymLookupMode.TABLE_ONLY) {
+                return CompletableFuture.completedFuture(demonym);
+            }
+        }
+        String code = remoteCode(countryCode);
+        if (code == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return cache.getAsync(code, c -> restCountriesClient.fetchDemonymAsync(c).toCompletableFuture())
+                .exceptionally(e -> {
+                    LOG.warnf("Error fetching demonym for %s: %s", code, e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Returns the hit, miss and load-time counters of the demonym cache.
+     *
+     * @return A snapshot of the cache statistics.
+     */
+    public DemonymCache.Stats getCacheStats() {
+        return cache.stats();
+    }
+
+    // Upper-cased code for the API, or null when it cannot be a country code
+    private static String remoteCode(String countryCode) {
+        String code = countryCode.trim().toUpperCase(Locale.ROOT);
+        return COUNTRY_CODE.matcher(code).matches() ? code : null;
     }
 }
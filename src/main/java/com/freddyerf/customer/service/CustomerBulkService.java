@@ -0,0 +1,326 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.model.BatchResult;
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.ImportResult;
+import com.freddyerf.customer.repository.CustomerCopyRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbException;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Bulk import and export of customers in CSV and newline-delimited JSON, for migrations and
+ * data-warehouse loads. Records stream between the request and PostgreSQL {@code COPY}; on the way
+ * in they are validated into a temporary spool file and enriched once their countries are resolved,
+ * and invalid ones are reported without failing the load.
+ */
+@ApplicationScoped
+public class CustomerBulkService {
+
+    // Columns an export contains besides the importable fields; an import ignores them, so exports can be loaded again
+    private static final Set<String> IGNORED_COLUMNS = Set.of("id", "demonym", "version");
+
+    // Length of the customer's varchar columns; longer values would fail the whole COPY
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    // Order of the customer fields in a spooled record, after the record's position in the input
+    private static final List<String> SPOOLED_FIELDS = List.copyOf(CustomerService.PATCHABLE.keySet());
+
+    @Inject
+    CustomerCopyRepository copyRepository;
+
+    @Inject
+    CountryService countryService;
+
+    @Inject
+    CustomerEmailFilter emailFilter;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    Jsonb jsonb;
+
+    @ConfigProperty(name = "customer.import.max-reported-errors", defaultValue = "1000")
+    int maxReportedErrors;
+
+    @ConfigProperty(name = "customer.import.transaction-timeout", defaultValue = "3600")
+    int importTransactionTimeout;
+
+    /**
+     * Imports customers from CSV. The first record is a header naming the customer fields of
+     * each column; {@code id}, {@code demonym} and {@code version} columns are ignored.
+     *
+     * @param in The CSV input.
+     * @return The number of customers created, the records that were rejected and the duplicate emails skipped.
+     * @throws IllegalArgumentException if the header names a column that is not a customer field.
+     */
+    public ImportResult importCsv(BufferedReader in) throws IOException {
+        List<String> header = CustomerCsv.readRecord(in);
+        if (header == null) {
+            return new ImportResult(0, 0, 0, List.of());
+        }
+        for (String column : header) {
+            if (column == null || !CustomerService.PATCHABLE.containsKey(column) && !IGNORED_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + column);
+            }
+        }
+        return importRecords(() -> {
+            List<String> record;
+            do {
+                record = CustomerCsv.readRecord(in);
+            } while (record != null && CustomerCsv.isBlank(record));
+            return record == null ? null : fromCsv(header, record);
+        });
+    }
+
+    /**
+     * Imports customers from newline-delimited JSON, one customer per line as accepted by
+     * {@code POST /customers}. Blank lines are skipped.
+     *
+     * @param in The NDJSON input.
+     * @return The number of customers created, the records that were rejected and the duplicate emails skipped.
+     */
+    public ImportResult importNdjson(BufferedReader in) {
+        return importRecords(() -> {
+            String line;
+            do {
+                line = in.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return jsonb.fromJson(line, Customer.class);
+            } catch (JsonbException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes every customer, ordered by ID, as CSV with a header row.
+     *
+     * @param out The response body.
+     */
+    public void exportCsv(OutputStream out) throws IOException {
+        copyRepository.exportCsv(out);
+    }
+
+    /**
+     * Writes every customer, ordered by ID, as one JSON document per line.
+     *
+     * @param out The response body.
+     */
+    public void exportNdjson(OutputStream out) throws IOException {
+        copyRepository.exportNdjson(out);
+    }
+
+    // Records are parsed and checked as they arrive and spooled to a temporary file, so neither the
+    // input nor the customers are ever held in memory. The demonyms of the distinct countries are
+    // resolved next, before the transaction opens: they may need the REST Countries API, which must
+    // not be waited for while a transaction and a pooled connection are held. The load itself then
+    // runs in one transaction that only streams the spooled rows, demonyms set, into COPY.
+    private ImportResult importRecords(RecordSource source) {
+        try {
+            Path spool = Files.createTempFile("customer-import-", ".csv");
+            try {
+                Rejections rejections = new Rejections();
+                Spooled spooled = spool(source, spool, rejections);
+                Map<String, String> demonyms = new HashMap<>();
+                for (String country : spooled.countries()) {
+                    demonyms.put(country, countryService.getDemonymByCountryCode(country));
+                }
+                try (BufferedReader in = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+                    SpooledCustomers customers = new SpooledCustomers(in, demonyms, rejections);
+                    long imported = QuarkusTransaction.requiringNew().timeout(importTransactionTimeout)
+                            .call(() -> copyRepository.importCustomers(customers, spooled.records()));
+                    if (imported > 0) {
+                        copyRepository.evictCountryQueries();
+                    }
+                    return new ImportResult(imported, rejections.rejected, customers.accepted - imported, rejections.errors());
+                }
+            } finally {
+                Files.deleteIfExists(spool);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes the valid records of a source to the spool, each with its position
+    private Spooled spool(RecordSource source, Path spool, Rejections rejections) throws IOException {
+        Set<String> countries = new HashSet<>();
+        long records = 0;
+        try (Writer out = Files.newBufferedWriter(spool, StandardCharsets.UTF_8)) {
+            List<String> record = new ArrayList<>(SPOOLED_FIELDS.size() + 1);
+            for (int position = 0; ; position++) {
+                Customer customer;
+                try {
+                    customer = source.next();
+                } catch (IllegalArgumentException e) {
+                    rejections.parseErrors.reject(position, List.of(e.getMessage()));
+                    continue;
+                }
+                if (customer == null) {
+                    return new Spooled(records, countries);
+                }
+                List<String> problems = problems(customer);
+                if (!problems.isEmpty()) {
+                    rejections.parseErrors.reject(position, problems);
+                    continue;
+                }
+                countries.add(customer.getCountry());
+                record.clear();
+                record.add(Integer.toString(position));
+                for (String field : SPOOLED_FIELDS) {
+                    record.add(CustomerService.PATCHABLE.get(field).getter().apply(customer));
+                }
+                CustomerCsv.writeRecord(out, record);
+                records++;
+            }
+        }
+    }
+
+    private List<String> problems(Customer customer) {
+        List<String> problems = new ArrayList<>();
+        validator.validate(customer).forEach(v -> problems.add(v.getPropertyPath() + ": " + v.getMessage()));
+        CustomerService.PATCHABLE.forEach((name, field) -> {
+            String value = field.getter().apply(customer);
+            if (value != null && value.length() > MAX_FIELD_LENGTH) {
+                problems.add(name + ": size must be at most " + MAX_FIELD_LENGTH);
+            }
+        });
+        return problems;
+    }
+
+    private static Customer fromCsv(List<String> header, List<String> record) {
+        if (record.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + record.size());
+        }
+        Customer customer = new Customer();
+        for (int i = 0; i < header.size(); i++) {
+            CustomerService.Field field = CustomerService.PATCHABLE.get(header.get(i));
+            if (field != null) {
+                field.setter().accept(customer, record.get(i));
+            }
+        }
+        return customer;
+    }
+
+    // Next record of the input, or null at its end. A record that cannot be read as a
+    // customer throws IllegalArgumentException and is rejected.
+    private interface RecordSource {
+        Customer next() throws IOException;
+    }
+
+    // How many records were spooled and their distinct countries
+    private record Spooled(long records, Set<String> countries) {
+    }
+
+    // The spooled customers with their demonym set; those of an unknown country are rejected on the way
+    private final class SpooledCustomers implements Iterator<Customer> {
+
+        private final BufferedReader spool;
+        private final Map<String, String> demonyms;
+        private final Rejections rejections;
+        private long accepted;
+        private Customer next;
+
+        SpooledCustomers(BufferedReader spool, Map<String, String> demonyms, Rejections rejections) {
+            this.spool = spool;
+            this.demonyms = demonyms;
+            this.rejections = rejections;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                List<String> record;
+                try {
+                    record = CustomerCsv.readRecord(spool);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (record == null) {
+                    return false;
+                }
+                Customer customer = new Customer();
+                for (int i = 0; i < SPOOLED_FIELDS.size(); i++) {
+                    CustomerService.PATCHABLE.get(SPOOLED_FIELDS.get(i)).setter().accept(customer, record.get(i + 1));
+                }
+                String demonym = demonyms.get(customer.getCountry());
+                if (demonym == null) {
+                    rejections.countryErrors.reject(Integer.parseInt(record.get(0)),
+                            List.of("country: unknown country code " + customer.getCountry()));
+                    continue;
+                }
+                customer.setDemonym(demonym);
+                accepted++;
+                emailFilter.add(customer.getEmail());
+                next = customer;
+            }
+            return true;
+        }
+
+        @Override
+        public Customer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Customer customer = next;
+            next = null;
+            return customer;
+        }
+    }
+
+    // Rejected records of both passes. Each pass reports in input order and keeps its first
+    // customer.import.max-reported-errors, so merging them gives the first ones overall.
+    private final class Rejections {
+
+        private final Pass parseErrors = new Pass();
+        private final Pass countryErrors = new Pass();
+        private long rejected;
+
+        List<BatchResult.ItemError> errors() {
+            List<BatchResult.ItemError> errors = new ArrayList<>(parseErrors.errors);
+            errors.addAll(countryErrors.errors);
+            errors.sort(Comparator.comparingInt(BatchResult.ItemError::index));
+            return errors.size() > maxReportedErrors ? List.copyOf(errors.subList(0, maxReportedErrors)) : errors;
+        }
+
+        private final class Pass {
+
+            private final List<BatchResult.ItemError> errors = new ArrayList<>();
+
+            void reject(int position, List<String> messages) {
+                rejected++;
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new BatchResult.ItemError(position, messages));
+                }
+            }
+        }
+    }
+}
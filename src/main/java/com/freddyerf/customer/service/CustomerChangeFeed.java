@@ -0,0 +1,135 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.model.CustomerChangeEvent;
+import com.freddyerf.customer.repository.CustomerChangeRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Relays the customer change outbox into the change feed and pushes new changes to the
+ * Server-Sent Events subscribers of this instance. Every instance polls the feed for its own
+ * subscribers, but only one at a time numbers outbox rows, so every instance sees the same order.
+ */
+@ApplicationScoped
+public class CustomerChangeFeed {
+
+    private static final Logger LOG = Logger.getLogger(CustomerChangeFeed.class);
+
+    @Inject
+    CustomerChangeRepository changeRepository;
+
+    @Inject
+    CustomerService customerService;
+
+    @ConfigProperty(name = "customer.changes.relay-batch-size", defaultValue = "1000")
+    int relayBatchSize;
+
+    @ConfigProperty(name = "customer.changes.retention", defaultValue = "P7D")
+    Duration retention;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Streams the changes after a position to a Server-Sent Events client, starting with the
+     * next relay. Each event is named after the change type and has the change position as its ID.
+     *
+     * @param sink The client's event sink; closed when the application stops.
+     * @param sse The SSE context used to build the events.
+     * @param since The position of the last change the client has seen, 0 to stream the whole feed.
+     */
+    public void subscribe(SseEventSink sink, Sse sse, long since) {
+        subscribers.add(new Subscriber(sink, sse, since));
+    }
+
+    @Scheduled(every = "${customer.changes.relay-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = QuarkusTransaction.requiringNew().call(() -> changeRepository.relay(relayBatchSize));
+            } while (relayed == relayBatchSize);
+            publish();
+        } catch (PersistenceException e) {
+            LOG.warnf("Could not relay customer changes, retrying on the next run: %s", e.getMessage());
+        }
+    }
+
+    @Scheduled(every = "${customer.changes.purge-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        long purged = QuarkusTransaction.requiringNew().call(() -> changeRepository.purgeBefore(cutoff));
+        if (purged > 0) {
+            LOG.debugf("Purged %d customer changes written before %s", purged, cutoff);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        subscribers.forEach(subscriber -> subscriber.sink.close());
+        subscribers.clear();
+    }
+
+    // Changes are read once for all subscribers, from the one furthest behind
+    private void publish() {
+        subscribers.removeIf(subscriber -> subscriber.sink.isClosed());
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long since = subscribers.stream().mapToLong(subscriber -> subscriber.position).min().orElseThrow();
+        List<CustomerChangeEvent> changes;
+        do {
+            long after = since;
+            changes = QuarkusTransaction.requiringNew().call(() -> customerService.findChanges(after, relayBatchSize));
+            for (CustomerChangeEvent change : changes) {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.send(change);
+                }
+                since = change.position();
+            }
+        } while (changes.size() == relayBatchSize);
+    }
+
+    private static final class Subscriber {
+        private final SseEventSink sink;
+        private final Sse sse;
+        private volatile long position;
+
+        private Subscriber(SseEventSink sink, Sse sse, long position) {
+            this.sink = sink;
+            this.sse = sse;
+            this.position = position;
+        }
+
+        private void send(CustomerChangeEvent change) {
+            if (change.position() <= position || sink.isClosed()) {
+                return;
+            }
+            position = change.position();
+            sink.send(sse.newEventBuilder()
+                            .id(Long.toString(change.position()))
+                            .name(change.type().name())
+                            .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                            .data(CustomerChangeEvent.class, change)
+                            .build())
+                    .whenComplete((sent, failure) -> {
+                        if (failure != null) {
+                            sink.close(); // The client went away; removed on the next relay
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.freddyerf.customer.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV records, as read by the bulk import and written to PostgreSQL {@code COPY ... (FORMAT csv)}.
+ * Fields are separated by commas and may be enclosed in double quotes, inside which a doubled
+ * quote stands for one quote and line breaks are part of the field.
+ */
+public final class CustomerCsv {
+
+    private CustomerCsv() {
+    }
+
+    /**
+     * Reads the next record. Records end at LF, CRLF or CR outside quotes.
+     *
+     * @param in The input, positioned at the start of a record.
+     * @return The fields of the record, or null at the end of the input. An unquoted empty
+     *         field is null and a quoted one is the empty string, as in {@code COPY}.
+     * @throws IllegalArgumentException if the input ends inside a quoted field.
+     */
+    public static List<String> readRecord(BufferedReader in) throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Input ends inside a quoted field");
+                }
+                if (c == '"') {
+                    int next = in.read();
+                    if (next != '"') {
+                        inQuotes = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == ',') {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                fields.add(value(field, quoted));
+                return fields;
+            } else if (c == '"' && field.isEmpty() && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    /**
+     * Writes one record terminated by LF. Null fields are written empty and every other field
+     * is quoted, so {@code COPY} reads them back as NULL and as the exact string respectively.
+     *
+     * @param out The output.
+     * @param fields The fields of the record.
+     */
+    public static void writeRecord(Writer out, List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String field = fields.get(i);
+            if (field != null) {
+                out.write('"');
+                out.write(field.replace("\"", "\"\""));
+                out.write('"');
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * @param record A record returned by {@link #readRecord}.
+     * @return Whether the record came from an empty line.
+     */
+    public static boolean isBlank(List<String> record) {
+        return record.size() == 1 && record.get(0) == null;
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.repository.CustomerRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link BloomFilter} of every customer email, so that creating a customer with an
+ * email that is definitely new needs no query to rule out a duplicate. Built from the customer
+ * table in the background at startup and updated on every write of this instance. Emails of
+ * deleted customers stay in it and emails written by other instances are missing from it until
+ * the next restart; the unique index on the email still rejects any duplicate it lets through.
+ */
+@ApplicationScoped
+public class CustomerEmailFilter {
+
+    private static final Logger LOG = Logger.getLogger(CustomerEmailFilter.class);
+    private static final int FETCH_SIZE = 10_000;
+    private static final int REBUILD_TRANSACTION_TIMEOUT = 3600;
+
+    @Inject
+    CustomerRepository customerRepository;
+
+    @ConfigProperty(name = "customer.email-filter.expected-emails", defaultValue = "1000000")
+    long expectedEmails;
+
+    @ConfigProperty(name = "customer.email-filter.false-positive-rate", defaultValue = "0.01")
+    double falsePositiveRate;
+
+    // Null until the first build has finished; until then any email might exist
+    private volatile BloomFilter filter;
+
+    // The filter being built, which must also see the emails written while the table is read
+    private volatile BloomFilter building;
+
+    void onStart(@Observes StartupEvent event) {
+        Thread rebuild = new Thread(this::rebuild, "customer-email-filter");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /**
+     * Checks whether a customer might already have an email, ignoring case.
+     *
+     * @param email The email to check.
+     * @return false if no customer has the email, true if one might.
+     */
+    public boolean mightExist(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(normalize(email));
+    }
+
+    /**
+     * Records an email that was just written.
+     *
+     * @param email The email of a created or updated customer.
+     */
+    public void add(String email) {
+        String normalized = normalize(email);
+        BloomFilter next = building;
+        if (next != null) {
+            next.add(normalized);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(normalized);
+        }
+    }
+
+    /**
+     * Builds the filter again from the customer table. Sized for twice the current customers or
+     * {@code customer.email-filter.expected-emails}, whichever is larger.
+     */
+    public void rebuild() {
+        try {
+            long customers = QuarkusTransaction.requiringNew().call(customerRepository::count);
+            BloomFilter next = new BloomFilter(Math.max(expectedEmails, 2 * customers), falsePositiveRate);
+            building = next;
+            long start = System.nanoTime();
+            QuarkusTransaction.requiringNew().timeout(REBUILD_TRANSACTION_TIMEOUT).run(() -> {
+                try (Stream<String> emails = customerRepository.streamEmails(FETCH_SIZE)) {
+                    emails.forEach(email -> next.add(normalize(email)));
+                }
+            });
+            filter = next;
+            LOG.infof("Email filter built from %d customers in %d ms (%d KiB, %d hashes)", customers,
+                    (System.nanoTime() - start) / 1_000_000, next.bitSize() / 8192, next.hashCount());
+        } catch (RuntimeException e) {
+            LOG.warnf("Could not build the email filter, creates will check every email in the database: %s", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
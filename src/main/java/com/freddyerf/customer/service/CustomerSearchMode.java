@@ -0,0 +1,17 @@
+package com.freddyerf.customer.service;
+
+/**
+ * How {@link CustomerService#searchCustomers} matches the query against names, email and phone.
+ */
+public enum CustomerSearchMode {
+
+    /**
+     * Case-insensitive prefix of any searched field, paginated by id.
+     */
+    PREFIX,
+
+    /**
+     * Trigram similarity with any searched field, tolerating typos; one page, best matches first.
+     */
+    FUZZY
+}
@@ -1,110 +1,559 @@
 package com.freddyerf.customer.service;
 
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import com.freddyerf.customer.model.BatchResult;
+import com.freddyerf.customer.model.CountryStats;
 import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.CustomerChange;
+import com.freddyerf.customer.model.CustomerChangeEvent;
+import com.freddyerf.customer.model.EntityCacheStats;
+import com.freddyerf.customer.model.KnownCountry;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.repository.CountryStatsRepository;
+import com.freddyerf.customer.repository.CustomerChangeRepository;
 import com.freddyerf.customer.repository.CustomerRepository;
+import com.freddyerf.customer.repository.ReplicaCustomerRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.bind.Jsonb;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class CustomerService {
 
+    record Field(Function<Customer, String> getter, BiConsumer<Customer, String> setter) {
+    }
+
+    // Fields a client may set, by merge patch or bulk import; id, version and demonym are managed by the service
+    static final Map<String, Field> PATCHABLE = Map.of(
+            "firstName", new Field(Customer::getFirstName, Customer::setFirstName),
+            "secondName", new Field(Customer::getSecondName, Customer::setSecondName),
+            "lastName", new Field(Customer::getLastName, Customer::setLastName),
+            "secondLastName", new Field(Customer::getSecondLastName, Customer::setSecondLastName),
+            "email", new Field(Customer::getEmail, Customer::setEmail),
+            "address", new Field(Customer::getAddress, Customer::setAddress),
+            "phone", new Field(Customer::getPhone, Customer::setPhone),
+            "country", new Field(Customer::getCountry, Customer::setCountry));
+
+    // Fields a PUT replaces; the others keep their current value
+    private static final List<String> UPDATABLE = List.of("email", "address", "phone", "country");
+
     @Inject
     CustomerRepository customerRepository;
 
     @Inject
-    private CountryService countryService;
+    CountryStatsRepository countryStatsRepository;
+
+    @Inject
+    ReplicaCustomerRepository replicaRepository;
+
+    @Inject
+    CustomerChangeRepository changeRepository;
+
+    @Inject
+    CountryService countryService;
+
+    @Inject
+    CustomerEmailFilter emailFilter;
 
     @Inject
     Validator validator;
 
+    @Inject
+    CustomerMetrics metrics;
+
+    @Inject
+    Jsonb jsonb;
+
+    @ConfigProperty(name = "customer.read-replica.enabled", defaultValue = "false")
+    boolean readReplicaEnabled;
+
+    @ConfigProperty(name = "customer.read-replica.max-lag", defaultValue = "PT10S")
+    Duration replicaMaxLag;
+
+    @ConfigProperty(name = "customer.page.default-size", defaultValue = "50")
+    int defaultPageSize;
+
+    @ConfigProperty(name = "customer.page.max-size", defaultValue = "500")
+    int maxPageSize;
+
+    @ConfigProperty(name = "customer.search.min-length", defaultValue = "3")
+    int searchMinLength;
+
+    @ConfigProperty(name = "customer.batch.chunk-size", defaultValue = "1000")
+    int batchChunkSize;
 
+    @ConfigProperty(name = "customer.export.fetch-size", defaultValue = "1000")
+    int exportFetchSize;
+
+    @ConfigProperty(name = "customer.export.transaction-timeout", defaultValue = "3600")
+    int exportTransactionTimeout;
+
+    // When this instance deleted each customer, while the replica may still return it
+    private final Map<Long, Long> deletedAt = new ConcurrentHashMap<>();
 
     /**
      * Creates and persists a new customer with a demonym based on their country code.
+     * The demonym is resolved before the transaction starts, so no database connection
+     * is held while the country lookup waits on the network.
      *
      * @param customer The customer to be created.
      * @return The persisted customer with the demonym set.
+     * @throws EntityExistsException if another customer already has the email, ignoring case.
      */
-    @Transactional
     public Customer createCustomer(Customer customer) {
-        String demonym = countryService.getDemonymByCountryCode(customer.getCountry());
+        return createCustomer(customer, countryService.getDemonymByCountryCode(customer.getCountry()));
+    }
+
+    // Create a customer whose demonym has already been resolved
+    Customer createCustomer(Customer customer, String demonym) {
+        prepareNewCustomer(customer, demonym);
+        checkEmailAvailable(customer.getEmail());
+        QuarkusTransaction.joiningExisting().run(() -> insertCustomer(customer));
+        return customer;
+    }
+
+    // Most new emails are definitely not in the filter, which saves the existence query. A possible
+    // match is checked in the database; the unique index still rejects duplicates this lets through.
+    private void checkEmailAvailable(String email) {
+        if (emailFilter.mightExist(email)
+                && QuarkusTransaction.joiningExisting().call(() -> customerRepository.existsByEmail(email))) {
+            throw duplicateEmail(email);
+        }
+    }
+
+    // Everything createCustomer does outside the transaction after the lookup: enrichment and validation
+    void prepareNewCustomer(Customer customer, String demonym) {
         customer.setDemonym(demonym);
 
         Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
         if (!violations.isEmpty() || demonym == null) {
+            metrics.createValidationFailures.increment();
             throw new ConstraintViolationException(violations);
         }
+    }
 
+    // Everything createCustomer does inside the transaction
+    void insertCustomer(Customer customer) {
         customerRepository.persist(customer);
-        return customer;
+        flush(customer);
+        emailFilter.add(customer.getEmail());
+        countryStatsRepository.addCustomers(customer.getCountry(), 1);
+        recordChange(CustomerChange.Type.CREATED, customer);
+    }
+
+    /**
+     * Validates and creates many customers at once.
+     * Demonyms are resolved once per distinct country before any transaction starts. Valid
+     * customers are then inserted in JDBC batches, {@code customer.batch.chunk-size} per
+     * transaction. If a chunk fails, its customers are retried one by one so only the
+     * offending items are rejected.
+     *
+     * @param customers The customers to be created.
+     * @return The ids of the created customers and the errors of the rejected ones.
+     */
+    public BatchResult createCustomers(List<Customer> customers) {
+        Long[] ids = new Long[customers.size()];
+        List<BatchResult.ItemError> errors = new ArrayList<>();
+        List<Integer> enriched = prepareBatch(customers, errors);
+
+        for (int start = 0; start < enriched.size(); start += batchChunkSize) {
+            List<Integer> chunk = enriched.subList(start, Math.min(start + batchChunkSize, enriched.size()));
+            try {
+                QuarkusTransaction.requiringNew().run(() -> insertChunk(customers, chunk));
+                chunk.forEach(i -> ids[i] = customers.get(i).getId());
+            } catch (RuntimeException chunkFailure) {
+                for (int i : chunk) {
+                    Customer customer = customers.get(i);
+                    customer.setId(null);
+                    try {
+                        QuarkusTransaction.requiringNew().run(() -> insertCustomer(customer));
+                        ids[i] = customer.getId();
+                    } catch (RuntimeException e) {
+                        errors.add(new BatchResult.ItemError(i, List.of(rootMessage(e))));
+                    }
+                }
+            }
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return new BatchResult(Arrays.asList(ids), errors);
+    }
+
+    /**
+     * Validates and creates many customers at once in the caller's transaction, so they commit
+     * together with whatever else it writes, e.g. the stored response of an idempotent request.
+     * Customers are validated and enriched as {@link #createCustomers(List)} does. Those whose
+     * email is taken, ignoring case, by another customer or earlier in the batch are rejected
+     * before inserting; as a failed insert leaves the transaction unable to commit, any other
+     * failure fails the whole batch.
+     *
+     * @param customers The customers to be created.
+     * @return The ids of the created customers and the errors of the rejected ones.
+     * @throws EntityExistsException if another request took one of the emails meanwhile.
+     */
+    public BatchResult createCustomersInTransaction(List<Customer> customers) {
+        Long[] ids = new Long[customers.size()];
+        List<BatchResult.ItemError> errors = new ArrayList<>();
+        List<Integer> enriched = prepareBatch(customers, errors);
+
+        Set<String> emails = new HashSet<>();
+        List<Integer> available = new ArrayList<>(enriched.size());
+        for (int i : enriched) {
+            String email = customers.get(i).getEmail();
+            try {
+                if (!emails.add(email.toLowerCase(Locale.ROOT))) {
+                    throw duplicateEmail(email);
+                }
+                checkEmailAvailable(email);
+                available.add(i);
+            } catch (EntityExistsException e) {
+                errors.add(new BatchResult.ItemError(i, List.of(e.getMessage())));
+            }
+        }
+
+        try {
+            QuarkusTransaction.joiningExisting().run(() -> {
+                for (int start = 0; start < available.size(); start += batchChunkSize) {
+                    insertChunk(customers, available.subList(start, Math.min(start + batchChunkSize, available.size())));
+                }
+            });
+        } catch (PersistenceException e) {
+            if (CustomerRepository.isDuplicateEmail(e)) {
+                throw new EntityExistsException("An email in the batch was taken by another request", e);
+            }
+            throw e;
+        }
+        available.forEach(i -> ids[i] = customers.get(i).getId());
+
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return new BatchResult(Arrays.asList(ids), errors);
+    }
+
+    // Validates a batch and sets the demonyms, resolved once per distinct country. Reports the
+    // rejected customers and returns the positions of the others, ready to insert.
+    private List<Integer> prepareBatch(List<Customer> customers, List<BatchResult.ItemError> errors) {
+        List<Integer> valid = new ArrayList<>(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            if (customer == null) {
+                errors.add(new BatchResult.ItemError(i, List.of("customer must not be null")));
+                continue;
+            }
+            Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+            if (!violations.isEmpty()) {
+                metrics.batchValidationFailures.increment();
+                errors.add(new BatchResult.ItemError(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .toList()));
+            } else {
+                valid.add(i);
+            }
+        }
+
+        Map<String, String> demonyms = new HashMap<>();
+        List<Integer> enriched = new ArrayList<>(valid.size());
+        for (int i : valid) {
+            Customer customer = customers.get(i);
+            String country = customer.getCountry();
+            if (!demonyms.containsKey(country)) {
+                demonyms.put(country, countryService.getDemonymByCountryCode(country));
+            }
+            String demonym = demonyms.get(country);
+            if (demonym == null) {
+                errors.add(new BatchResult.ItemError(i, List.of("country: unknown country code " + customer.getCountry())));
+            } else {
+                customer.setId(null);
+                customer.setDemonym(demonym);
+                enriched.add(i);
+            }
+        }
+        return enriched;
+    }
+
+    /**
+     * Retrieves one page of customers, ordered by ID.
+     * With {@code customer.read-replica.enabled} the page is read from the replica and may
+     * miss the most recent writes.
+     *
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of customers and the cursor of the next page.
+     */
+    public Page<Customer> getCustomers(Long after, Integer limit) {
+        int size = pageSize(limit);
+        List<Customer> rows = readReplicaEnabled
+                ? replicaRepository.findPage(cursor(after), size + 1)
+                : customerRepository.findPage(cursor(after), size + 1);
+        return toPage(rows, size);
+    }
+
+    /**
+     * Retrieves one page of customers, ordered by ID, with only the requested fields.
+     * Only those columns are selected and no entities are loaded. Read from the replica like
+     * {@link #getCustomers} when {@code customer.read-replica.enabled} is set.
+     *
+     * @param fields Comma-separated customer fields; the ID is always included.
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of field values by name and the cursor of the next page.
+     * @throws IllegalArgumentException if a field is not a customer field.
+     */
+    public Page<Map<String, Object>> getCustomerFields(String fields, Long after, Integer limit) {
+        int size = pageSize(limit);
+        List<String> projection = projection(fields);
+        List<Map<String, Object>> rows = readReplicaEnabled
+                ? replicaRepository.findPageFields(projection, cursor(after), size + 1)
+                : customerRepository.findPageFields(projection, cursor(after), size + 1);
+        return toPage(rows, size, CustomerService::projectedId);
     }
 
     /**
-     * Retrieves all customers from the database.
+     * Streams every customer, ordered by ID, to the given consumer.
+     * Rows are read from a database cursor {@code customer.export.fetch-size} at a time and
+     * each customer is detached once consumed, so memory use does not grow with the table.
      *
-     * @return A list of all customers.
+     * @param sink Receives each customer; it must not keep a reference to it.
+     */
+    public void exportCustomers(Consumer<Customer> sink) {
+        QuarkusTransaction.requiringNew().timeout(exportTransactionTimeout).run(() -> {
+            try (Stream<Customer> customers = customerRepository.streamAll(exportFetchSize)) {
+                customers.forEach(customer -> {
+                    sink.accept(customer);
+                    customerRepository.getEntityManager().detach(customer);
+                });
+            }
+        });
+    }
+
+    /**
+     * Fetches one page of customers by their country code, ordered by ID.
+     *
+     * @param country The country code of the customers to retrieve.
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of customers from the specified country and the cursor of the next page.
      */
-    public List<Customer> getAllCustomers() {
-        return customerRepository.listAll();
+    public Page<Customer> getCustomersByCountry(String country, Long after, Integer limit) {
+        int size = pageSize(limit);
+        List<Customer> rows = readReplicaEnabled
+                ? replicaRepository.findByCountry(country, cursor(after), size + 1)
+                : customerRepository.findByCountry(country, cursor(after), size + 1);
+        return toPage(rows, size);
     }
 
     /**
-     * Fetches customers by their country code.
+     * Fetches one page of customers by their country code, ordered by ID, with only the requested fields.
+     * Read from the replica like {@link #getCustomersByCountry} when {@code customer.read-replica.enabled} is set.
      *
      * @param country The country code of the customers to retrieve.
-     * @return A list of customers from the specified country.
+     * @param fields Comma-separated customer fields; the ID is always included.
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of field values by name and the cursor of the next page.
+     * @throws IllegalArgumentException if a field is not a customer field.
      */
-    public List<Customer> getCustomersByCountry(String country) {
-        return customerRepository.findByCountry(country);
+    public Page<Map<String, Object>> getCustomerFieldsByCountry(String country, String fields, Long after, Integer limit) {
+        int size = pageSize(limit);
+        List<String> projection = projection(fields);
+        List<Map<String, Object>> rows = readReplicaEnabled
+                ? replicaRepository.findByCountryFields(country, projection, cursor(after), size + 1)
+                : customerRepository.findByCountryFields(country, projection, cursor(after), size + 1);
+        return toPage(rows, size, CustomerService::projectedId);
+    }
+
+    /**
+     * Searches customers by first name, last names, email and phone, ignoring case.
+     * Prefix searches are paginated by ID like the other listings; fuzzy searches return
+     * a single page of the closest matches, so their next cursor is always null. With
+     * {@code customer.read-replica.enabled} both are read from the replica.
+     *
+     * @param query The text to search for; surrounding whitespace is ignored.
+     * @param mode Whether the query is a prefix of a field or only similar to it.
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of matching customers and the cursor of the next page.
+     * @throws IllegalArgumentException if the query is shorter than {@code customer.search.min-length}.
+     */
+    public Page<Customer> searchCustomers(String query, CustomerSearchMode mode, Long after, Integer limit) {
+        String text = query == null ? "" : query.strip();
+        if (text.length() < searchMinLength) {
+            throw new IllegalArgumentException("Search query must be at least " + searchMinLength + " characters long");
+        }
+        int size = pageSize(limit);
+        if (mode == CustomerSearchMode.FUZZY) {
+            return new Page<>(readReplicaEnabled
+                    ? replicaRepository.searchFuzzy(text, size)
+                    : customerRepository.searchFuzzy(text, size), null);
+        }
+        List<Customer> rows = readReplicaEnabled
+                ? replicaRepository.searchByPrefix(text, cursor(after), size + 1)
+                : customerRepository.searchByPrefix(text, cursor(after), size + 1);
+        return toPage(rows, size);
     }
 
     /**
      * Gets a customer by their unique ID.
+     * With {@code customer.read-replica.enabled}, customers in the second-level cache are still
+     * served from it, and it holds every customer this instance wrote recently, so a client
+     * reads its own writes. So is a customer this instance deleted less than
+     * {@code customer.read-replica.max-lag} ago, which the replica may still have. Other customers
+     * are read from the replica, falling back to the primary when the replica does not have them yet.
      *
      * @param id The ID of the customer to find.
      * @return The found customer, or null if not found.
      */
     public Customer getCustomerById(Long id) {
-        return customerRepository.findById(id);
+        if (!readReplicaEnabled || customerRepository.isCached(id) || recentlyDeleted(id)) {
+            return customerRepository.findById(id);
+        }
+        Customer customer = replicaRepository.findById(id);
+        return customer != null ? customer : customerRepository.findById(id);
+    }
+
+    /**
+     * Gets a customer by their email, ignoring case. Read from the primary, so a customer is
+     * found as soon as it was created.
+     *
+     * @param email The email of the customer to find.
+     * @return The found customer, or null if no customer has the email.
+     */
+    public Customer getCustomerByEmail(String email) {
+        return customerRepository.findByEmail(email);
     }
 
     /**
      * Updates an existing customer's details.
+     * The demonym of the new country is resolved before the transaction starts, so no
+     * database connection is held while the country lookup waits on the network.
      *
      * @param id The ID of the customer to update.
      * @param updatedCustomer The new details for the customer.
      * @return The updated customer, or null if the customer does not exist.
+     * @throws OptimisticLockException if the customer was changed concurrently.
+     * @throws EntityExistsException if the new email belongs to another customer, ignoring case.
+     * @throws ConstraintViolationException if the updated customer is invalid, or its new country code is unknown.
+     * @throws CountryLookupUnavailableException if the demonym of a new country could not be looked up.
      */
-    @Transactional
     public Customer updateCustomer(Long id, Customer updatedCustomer) {
+        return updateCustomer(id, updatedCustomer, null);
+    }
 
-        Customer customer = customerRepository.findById(id);
-        if (customer != null) {
-            // Update the fields you allow to be updated
-            customer.setEmail(updatedCustomer.getEmail());
-            customer.setAddress(updatedCustomer.getAddress());
-            customer.setPhone(updatedCustomer.getPhone());
-            customer.setCountry(updatedCustomer.getCountry());
-            String demonym = countryService.getDemonymByCountryCode(customer.getCountry());
-            customer.setDemonym(demonym);
+    /**
+     * Updates an existing customer's details if it still has one of the expected versions.
+     * The demonym is only resolved again when the country changes, and an update that changes
+     * nothing returns the customer without opening a write transaction.
+     *
+     * @param id The ID of the customer to update.
+     * @param updatedCustomer The new details for the customer.
+     * @param expectedVersions The versions the caller accepts, e.g. those listed in If-Match, or null to update whatever the current version is.
+     * @return The updated customer, or null if the customer does not exist.
+     * @throws OptimisticLockException if the customer has another version, or was changed concurrently.
+     * @throws EntityExistsException if the new email belongs to another customer, ignoring case.
+     * @throws ConstraintViolationException if the updated customer is invalid, or its new country code is unknown.
+     * @throws CountryLookupUnavailableException if the demonym of a new country could not be looked up.
+     */
+    public Customer updateCustomer(Long id, Customer updatedCustomer, Set<Long> expectedVersions) {
+        Customer current = readCustomer(id);
+        if (current == null) {
+            return null;
+        }
+        Map<String, String> changes = new HashMap<>();
+        for (String field : UPDATABLE) {
+            changes.put(field, PATCHABLE.get(field).getter().apply(updatedCustomer));
+        }
+        if (!changesAnything(current, changes)) {
+            checkVersion(current, expectedVersions);
+            return current;
+        }
+        boolean countryChanges = !Objects.equals(current.getCountry(), updatedCustomer.getCountry());
+        String demonym = countryChanges ? resolveDemonym(current, changes) : null;
 
-            // validate updated customer
-            Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
-            if (!violations.isEmpty()) {
-                throw new ConstraintViolationException(violations);
+        return QuarkusTransaction.joiningExisting().call(() -> {
+            Customer customer = customerRepository.findById(id);
+            if (customer != null) {
+                checkVersion(customer, expectedVersions);
+                String previousCountry = customer.getCountry();
+                // Update the fields you allow to be updated
+                customer.setEmail(updatedCustomer.getEmail());
+                customer.setAddress(updatedCustomer.getAddress());
+                customer.setPhone(updatedCustomer.getPhone());
+                customer.setCountry(updatedCustomer.getCountry());
+                return saveChanges(customer, previousCountry, countryChanges, demonym);
             }
-            // Persist the changes
-            customerRepository.persist(customer);
-            return customer;
+            return null; // or throw an exception
+        });
+    }
+
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to a customer: only the fields present in the patch
+     * change, and a null value clears an optional field. The demonym is only resolved again when
+     * the country changes, only the changed columns are written, and a patch that changes nothing
+     * returns the customer without opening a write transaction.
+     *
+     * @param id The ID of the customer to patch.
+     * @param patch The fields to change. Only the customer's name, contact and country fields can be patched.
+     * @param expectedVersions The versions the caller accepts, e.g. those listed in If-Match, or null to patch whatever the current version is.
+     * @return The patched customer, or null if the customer does not exist.
+     * @throws IllegalArgumentException if the patch names a field that cannot be patched, or a value is not a string or null.
+     * @throws OptimisticLockException if the customer has another version, or was changed concurrently.
+     * @throws EntityExistsException if the new email belongs to another customer, ignoring case.
+     * @throws ConstraintViolationException if the patched customer is invalid, or its new country code is unknown.
+     * @throws CountryLookupUnavailableException if the demonym of a new country could not be looked up.
+     */
+    public Customer patchCustomer(Long id, JsonObject patch, Set<Long> expectedVersions) {
+        Map<String, String> changes = patchedFields(patch);
+        Customer current = readCustomer(id);
+        if (current == null) {
+            return null;
         }
-        return null; // or throw an exception
+        if (!changesAnything(current, changes)) {
+            checkVersion(current, expectedVersions);
+            return current;
+        }
+        boolean countryChanges = changes.containsKey("country")
+                && !Objects.equals(current.getCountry(), changes.get("country"));
+        String demonym = countryChanges ? resolveDemonym(current, changes) : null;
+
+        return QuarkusTransaction.joiningExisting().call(() -> {
+            Customer customer = customerRepository.findById(id);
+            if (customer == null) {
+                return null;
+            }
+            checkVersion(customer, expectedVersions);
+            String previousCountry = customer.getCountry();
+            changes.forEach((field, value) -> PATCHABLE.get(field).setter().accept(customer, value));
+            return saveChanges(customer, previousCountry, countryChanges, demonym);
+        });
     }
 
     /**
@@ -115,7 +564,282 @@ public class CustomerService {
      */
     @Transactional
     public boolean deleteCustomer(Long id) {
-        return customerRepository.deleteById(id);
+        return deleteCustomer(id, null);
+    }
+
+    /**
+     * Deletes a customer by their ID if it still has one of the expected versions.
+     *
+     * @param id The ID of the customer to delete.
+     * @param expectedVersions The versions the caller accepts, e.g. those listed in If-Match, or null to delete whatever the current version is.
+     * @return true if the customer was successfully deleted, false if it does not exist.
+     * @throws OptimisticLockException if the customer has another version, or was changed concurrently.
+     */
+    @Transactional
+    public boolean deleteCustomer(Long id, Set<Long> expectedVersions) {
+        Customer customer = customerRepository.findById(id);
+        if (customer == null) {
+            return false;
+        }
+        checkVersion(customer, expectedVersions);
+        customerRepository.delete(customer);
+        customerRepository.flush();
+        countryStatsRepository.addCustomers(customer.getCountry(), -1);
+        recordChange(CustomerChange.Type.DELETED, customer);
+        if (readReplicaEnabled) {
+            long now = System.nanoTime();
+            deletedAt.values().removeIf(deleted -> now - deleted > replicaMaxLag.toNanos());
+            deletedAt.put(id, now);
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the customer changes after a position of the change feed, in the order they
+     * were relayed. Changes appear in the feed shortly after they commit, once the relay
+     * has given them a position; a position, once visible, is never followed by a smaller one.
+     *
+     * @param since The position of the last change already seen, or null to read from the start of the feed.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of changes and the position to read the next page from, or a null
+     *         cursor when the feed has no more changes yet.
+     */
+    public Page<CustomerChangeEvent> getChanges(Long since, Integer limit) {
+        int size = pageSize(limit);
+        return toPage(findChanges(cursor(since), size + 1), size, CustomerChangeEvent::position);
+    }
+
+    /**
+     * Retrieves the position of the last change in the feed, where a client that only wants
+     * the changes from now on starts reading.
+     *
+     * @return The position of the last change, or 0 if the feed is empty.
+     */
+    public long getLatestChangePosition() {
+        return changeRepository.findLatestPosition();
+    }
+
+    // The changes after a position, for the stream subscribers
+    List<CustomerChangeEvent> findChanges(long since, int limit) {
+        return changeRepository.findAfter(since, limit).stream()
+                .map(this::toEvent)
+                .toList();
+    }
+
+    /**
+     * Returns the number of customers per country, served from counters maintained on
+     * every write rather than counted over the customer table.
+     *
+     * @return The countries that have customers, with the most customers first.
+     */
+    public List<CountryStats> getCountryStats() {
+        return countryStatsRepository.findAllWithCustomers();
+    }
+
+    /**
+     * Returns the second-level and query cache statistics of the customer reads.
+     *
+     * @return The cache counters.
+     */
+    public EntityCacheStats getCacheStats() {
+        return customerRepository.cacheStats();
+    }
+
+    int pageSize(Integer limit) {
+        if (limit == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    static long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    // One extra row is fetched to know whether another page follows without a count query
+    static Page<Customer> toPage(List<Customer> rows, int size) {
+        return toPage(rows, size, Customer::getId);
+    }
+
+    static <T> Page<T> toPage(List<T> rows, int size, ToLongFunction<T> id) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new Page<>(items, id.applyAsLong(items.get(size - 1)));
+    }
+
+    // The requested fields, id first (it is the page cursor), without duplicates
+    static List<String> projection(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!CustomerRepository.PROJECTABLE_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown customer field: " + name);
+            }
+            names.add(name);
+        }
+        return List.copyOf(names);
+    }
+
+    private static long projectedId(Map<String, Object> row) {
+        return (Long) row.get("id");
+    }
+
+    // Persist a chunk and flush it as JDBC batches, then clear the persistence context
+    // so a large import does not keep every inserted customer managed.
+    private void insertChunk(List<Customer> customers, List<Integer> chunk) {
+        Map<String, Long> perCountry = new HashMap<>();
+        for (int i : chunk) {
+            Customer customer = customers.get(i);
+            customerRepository.persist(customer);
+            emailFilter.add(customer.getEmail());
+            recordChange(CustomerChange.Type.CREATED, customer);
+            perCountry.merge(customer.getCountry(), 1L, Long::sum);
+        }
+        customerRepository.flush();
+        customerRepository.getEntityManager().clear();
+        countryStatsRepository.addCustomers(perCountry);
+    }
+
+    // Writes the pending changes now, so a taken email is reported as such rather than as a failed commit
+    private void flush(Customer customer) {
+        try {
+            customerRepository.flush();
+        } catch (PersistenceException e) {
+            if (CustomerRepository.isDuplicateEmail(e)) {
+                throw duplicateEmail(customer.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    private static EntityExistsException duplicateEmail(String email) {
+        return new EntityExistsException("A customer with email " + email + " already exists");
+    }
+
+    // The outbox row is written in the caller's transaction, so a change is in the feed if and only if it commits
+    private void recordChange(CustomerChange.Type type, Customer customer) {
+        String snapshot = type == CustomerChange.Type.DELETED ? null : jsonb.toJson(customer);
+        changeRepository.persist(new CustomerChange(type, customer.getId(), customer.getVersion(), snapshot));
+    }
+
+    private CustomerChangeEvent toEvent(CustomerChange change) {
+        Customer customer = null;
+        if (change.getCustomer() != null) {
+            customer = jsonb.fromJson(change.getCustomer(), Customer.class);
+            customer.setVersion(change.getVersion()); // Not deserialized, clients cannot set it
+        }
+        return new CustomerChangeEvent(change.getPosition(), change.getCustomerId(), change.getType(),
+                change.getVersion(), change.getOccurredAt(), customer);
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private boolean recentlyDeleted(Long id) {
+        Long deleted = deletedAt.get(id);
+        return deleted != null && System.nanoTime() - deleted <= replicaMaxLag.toNanos();
     }
-}
 
+    // The current state, read before the write transaction to decide whether a lookup is needed.
+    // Usually a second-level cache hit, so the short transaction never takes a connection.
+    private Customer readCustomer(Long id) {
+        return QuarkusTransaction.joiningExisting().call(() -> customerRepository.findById(id));
+    }
+
+    // The demonym of a changed country. The customer as the changes leave it is validated first,
+    // so a missing or malformed country is reported as such and never reaches the lookup.
+    private String resolveDemonym(Customer current, Map<String, String> changes) {
+        Customer changed = new Customer();
+        PATCHABLE.values().forEach(field -> field.setter().accept(changed, field.getter().apply(current)));
+        changes.forEach((field, value) -> PATCHABLE.get(field).setter().accept(changed, value));
+        validateUpdate(changed);
+        changed.setDemonym(countryService.findDemonym(changed.getCountry()));
+        validateUpdate(changed, KnownCountry.Resolved.class);
+        return changed.getDemonym();
+    }
+
+    private void validateUpdate(Customer customer, Class<?>... groups) {
+        Set<ConstraintViolation<Customer>> violations = validator.validate(customer, groups);
+        if (!violations.isEmpty()) {
+            metrics.updateValidationFailures.increment();
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    // Validates and writes an updated managed customer. Hibernate only issues the UPDATE if a field changed,
+    // and only for the changed columns; flushing here runs it now, so a concurrent change surfaces as an
+    // OptimisticLockException rather than a failed commit. Callers skip updates that change nothing, so
+    // there is always a change to record.
+    private Customer saveChanges(Customer customer, String previousCountry, boolean countryChangeResolved, String demonym) {
+        if (!Objects.equals(previousCountry, customer.getCountry())) {
+            if (!countryChangeResolved) {
+                // The country changed since it was read outside the transaction, so no demonym was resolved
+                throw new OptimisticLockException("Customer " + customer.getId() + " was changed concurrently", null, customer);
+            }
+            customer.setDemonym(demonym);
+        }
+        validateUpdate(customer);
+        flush(customer);
+        emailFilter.add(customer.getEmail());
+        moveCountry(previousCountry, customer.getCountry());
+        recordChange(CustomerChange.Type.UPDATED, customer);
+        return customer;
+    }
+
+    private static Map<String, String> patchedFields(JsonObject patch) {
+        if (patch == null) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        Map<String, String> changes = new HashMap<>();
+        patch.forEach((field, value) -> {
+            if (!PATCHABLE.containsKey(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+            if (value.getValueType() == JsonValue.ValueType.NULL) {
+                changes.put(field, null);
+            } else if (value.getValueType() == JsonValue.ValueType.STRING) {
+                changes.put(field, ((JsonString) value).getString());
+            } else {
+                throw new IllegalArgumentException("Field " + field + " must be a string or null");
+            }
+        });
+        return changes;
+    }
+
+    private static boolean changesAnything(Customer customer, Map<String, String> changes) {
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            if (!Objects.equals(PATCHABLE.get(change.getKey()).getter().apply(customer), change.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkVersion(Customer customer, Set<Long> expectedVersions) {
+        if (expectedVersions != null && !expectedVersions.contains(customer.getVersion())) {
+            throw new OptimisticLockException("Customer " + customer.getId() + " is at version "
+                    + customer.getVersion() + ", not one of " + expectedVersions, null, customer);
+        }
+    }
+
+    private void moveCountry(String from, String to) {
+        if (from != null && from.equals(to)) {
+            return;
+        }
+        if (from != null) {
+            countryStatsRepository.addCustomers(from, -1);
+        }
+        countryStatsRepository.addCustomers(to, 1);
+    }
+}
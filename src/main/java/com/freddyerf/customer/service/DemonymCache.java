@@ -0,0 +1,302 @@
+package com.freddyerf.customer.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of country code to demonym lookups.
+ * Each key holds a future, so concurrent lookups of the same code share a single
+ * load instead of each calling the remote API. Unknown codes (a null demonym) are
+ * cached with their own, usually shorter, TTL. Failed loads are never cached; when
+ * refreshing an expired entry fails, the expired value keeps being served for up to
+ * {@code maxStale} past its expiry, and the next lookup tries to refresh it again.
+ */
+public final class DemonymCache {
+
+    /**
+     * Loads the demonym for a country code. Returns null when the code is unknown.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        String load(String countryCode) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Non-blocking variant of {@link Loader}. The returned future completes with null when the code is unknown.
+     */
+    @FunctionalInterface
+    public interface AsyncLoader {
+        CompletableFuture<String> load(String countryCode);
+    }
+
+    /**
+     * Point-in-time view of the cache counters.
+     */
+    public record Stats(long hits, long misses, long loads, long loadFailures, long staleHits,
+                        long totalLoadTimeNanos, long evictions, int size) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private record Entry(String demonym, long expiresAt) {
+    }
+
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long maxStaleNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache that never serves expired values.
+     *
+     * @param maxSize     The maximum number of country codes kept in the cache.
+     * @param ttl         How long a resolved demonym is kept.
+     * @param negativeTtl How long an unknown country code is remembered as unknown.
+     */
+    public DemonymCache(int maxSize, Duration ttl, Duration negativeTtl) {
+        this(maxSize, ttl, negativeTtl, Duration.ZERO);
+    }
+
+    /**
+     * @param maxSize     The maximum number of country codes kept in the cache.
+     * @param ttl         How long a resolved demonym is kept.
+     * @param negativeTtl How long an unknown country code is remembered as unknown.
+     * @param maxStale    How long past its expiry a value may still be served when refreshing it fails.
+     */
+    public DemonymCache(int maxSize, Duration ttl, Duration negativeTtl, Duration maxStale) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+    }
+
+    /**
+     * Returns the cached demonym for the given code, loading it with the given loader
+     * when it is absent or expired. Only one load per code runs at a time; concurrent
+     * callers wait for it and share its result.
+     *
+     * @param countryCode The normalized country code.
+     * @param loader      The loader used on a miss.
+     * @return The demonym, or null if the country code is unknown.
+     * @throws IOException if the load failed and no stale value could be served. The failure is not cached.
+     */
+    public String get(String countryCode, Loader loader) throws IOException, InterruptedException {
+        while (true) {
+            CompletableFuture<Entry> existing = entries.get(countryCode);
+            if (existing == null) {
+                CompletableFuture<Entry> loading = new CompletableFuture<>();
+                if (entries.putIfAbsent(countryCode, loading) == null) {
+                    evictIfNeeded();
+                    return load(countryCode, loader, loading, null);
+                }
+                continue;
+            }
+            if (!existing.isDone()) {
+                return await(existing);
+            }
+            if (existing.isCompletedExceptionally()) {
+                entries.remove(countryCode, existing);
+                continue;
+            }
+            Entry entry = existing.join();
+            if (entry.expiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.demonym();
+            }
+            CompletableFuture<Entry> loading = new CompletableFuture<>();
+            if (entries.replace(countryCode, existing, loading)) {
+                return load(countryCode, loader, loading, entry);
+            }
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #get}. Synchronous and asynchronous callers share
+     * the same entries, so a load started by either one serves both.
+     *
+     * @param countryCode The normalized country code.
+     * @param loader      The loader used on a miss.
+     * @return A future of the demonym, or of null if the country code is unknown. It fails if the load failed.
+     */
+    public CompletableFuture<String> getAsync(String countryCode, AsyncLoader loader) {
+        while (true) {
+            CompletableFuture<Entry> existing = entries.get(countryCode);
+            if (existing == null) {
+                CompletableFuture<Entry> loading = new CompletableFuture<>();
+                if (entries.putIfAbsent(countryCode, loading) == null) {
+                    evictIfNeeded();
+                    return loadAsync(countryCode, loader, loading, null);
+                }
+                continue;
+            }
+            if (!existing.isDone()) {
+                misses.increment();
+                return existing.thenApply(Entry::demonym);
+            }
+            if (existing.isCompletedExceptionally()) {
+                entries.remove(countryCode, existing);
+                continue;
+            }
+            Entry entry = existing.join();
+            if (entry.expiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.demonym());
+            }
+            CompletableFuture<Entry> loading = new CompletableFuture<>();
+            if (entries.replace(countryCode, existing, loading)) {
+                return loadAsync(countryCode, loader, loading, entry);
+            }
+        }
+    }
+
+    /**
+     * Removes every cached entry. Lookups in flight are not affected.
+     */
+    public void invalidateAll() {
+        entries.entrySet().removeIf(e -> e.getValue().isDone());
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), staleHits.sum(),
+                totalLoadTime.sum(), evictions.sum(), entries.size());
+    }
+
+    private String load(String countryCode, Loader loader, CompletableFuture<Entry> loading, Entry stale)
+            throws IOException, InterruptedException {
+        misses.increment();
+        loads.increment();
+        long start = System.nanoTime();
+        try {
+            String demonym = loader.load(countryCode);
+            long end = System.nanoTime();
+            totalLoadTime.add(end - start);
+            loading.complete(newEntry(demonym, end));
+            return demonym;
+        } catch (IOException | RuntimeException e) {
+            long end = System.nanoTime();
+            totalLoadTime.add(end - start);
+            loadFailures.increment();
+            if (isServable(stale, end)) {
+                staleHits.increment();
+                loading.complete(stale);
+                return stale.demonym();
+            }
+            entries.remove(countryCode, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        } catch (InterruptedException e) {
+            totalLoadTime.add(System.nanoTime() - start);
+            loadFailures.increment();
+            entries.remove(countryCode, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<String> loadAsync(String countryCode, AsyncLoader loader,
+                                                CompletableFuture<Entry> loading, Entry stale) {
+        misses.increment();
+        loads.increment();
+        long start = System.nanoTime();
+        CompletableFuture<String> result;
+        try {
+            result = loader.load(countryCode);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((demonym, error) -> {
+            long end = System.nanoTime();
+            totalLoadTime.add(end - start);
+            if (error == null) {
+                loading.complete(newEntry(demonym, end));
+            } else if (isServable(stale, end)) {
+                loadFailures.increment();
+                staleHits.increment();
+                loading.complete(stale);
+            } else {
+                loadFailures.increment();
+                entries.remove(countryCode, loading);
+                loading.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+        return loading.thenApply(Entry::demonym);
+    }
+
+    private Entry newEntry(String demonym, long loadedAt) {
+        return new Entry(demonym, loadedAt + (demonym != null ? ttlNanos : negativeTtlNanos));
+    }
+
+    // An expired entry kept as the result of a failed refresh; the next lookup sees it expired and refreshes again
+    private boolean isServable(Entry stale, long now) {
+        return stale != null && now - stale.expiresAt() < maxStaleNanos;
+    }
+
+    private String await(CompletableFuture<Entry> inFlight) throws IOException, InterruptedException {
+        misses.increment();
+        try {
+            return inFlight.get().demonym();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Demonym lookup failed", e.getCause());
+        }
+    }
+
+    // Entries past expiry but within maxStale are kept on the first pass: they are what a lookup
+    // falls back to while the API is down, which is exactly when the cache fills up with them.
+    private void evictIfNeeded() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Map.Entry<String, CompletableFuture<Entry>> e : entries.entrySet()) {
+            if (isLoaded(e.getValue()) && !isServable(e.getValue().join(), now)
+                    && e.getValue().join().expiresAt() - now <= 0
+                    && entries.remove(e.getKey(), e.getValue())) {
+                evictions.increment();
+            }
+        }
+        int excess = entries.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+        // Still full of live or servable entries: drop the oldest, i.e. those closest to or furthest past expiry.
+        entries.entrySet().stream()
+                .filter(e -> isLoaded(e.getValue()))
+                .sorted(Comparator.comparingLong(e -> e.getValue().join().expiresAt() - now))
+                .limit(excess)
+                .forEach(e -> {
+                    if (entries.remove(e.getKey(), e.getValue())) {
+                        evictions.increment();
+                    }
+                });
+    }
+
+    private static boolean isLoaded(CompletableFuture<Entry> future) {
+        return future.isDone() && !future.isCompletedExceptionally();
+    }
+}
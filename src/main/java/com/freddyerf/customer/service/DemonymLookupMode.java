@@ -0,0 +1,22 @@
+package com.freddyerf.customer.service;
+
+/**
+ * Where {@link CountryService} looks up demonyms.
+ */
+public enum DemonymLookupMode {
+
+    /**
+     * Only the bundled table; codes missing from it are treated as unknown.
+     */
+    TABLE_ONLY,
+
+    /**
+     * The bundled table first, the REST Countries API for codes missing from it.
+     */
+    TABLE_THEN_REMOTE,
+
+    /**
+     * Always the REST Countries API (through the cache).
+     */
+    REMOTE_ONLY
+}
@@ -0,0 +1,134 @@
+package com.freddyerf.customer.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Offline country code to demonym table, read from a bundled tab-separated resource.
+ * Alpha-2 codes are mapped straight to a slot of a flat 26x26 array, so a lookup is
+ * two arithmetic operations and an array read, with no hashing and no allocation.
+ */
+public final class DemonymTable {
+
+    /**
+     * Classpath location of the table generated by {@code scripts/generate-demonyms.sh}.
+     */
+    public static final String RESOURCE = "countries/demonyms.tsv";
+
+    private static final int LETTERS = 26;
+
+    private final String[] demonyms = new String[LETTERS * LETTERS];
+    private int size;
+
+    private DemonymTable() {
+    }
+
+    /**
+     * The table bundled at {@link #RESOURCE}. A native image initializes it at build time
+     * (see {@code quarkus.native.additional-build-args}), so the image starts with the table
+     * already in its heap and neither reads nor ships the resource.
+     *
+     * @return The bundled table.
+     */
+    public static DemonymTable bundled() {
+        return Bundled.TABLE;
+    }
+
+    /**
+     * Loads a table from the classpath.
+     *
+     * @param resource The classpath location of the table.
+     * @return The loaded table.
+     * @throws IllegalStateException if the resource does not exist.
+     */
+    public static DemonymTable fromClasspath(String resource) {
+        InputStream in = DemonymTable.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Demonym table not found on classpath: " + resource);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read demonym table " + resource, e);
+        }
+    }
+
+    /**
+     * Parses a table with one {@code CODE<TAB>Demonym} entry per line.
+     * Blank lines and lines starting with {@code #} are ignored, as are entries
+     * whose code is not a two-letter code.
+     *
+     * @param reader The table contents.
+     * @return The parsed table.
+     */
+    public static DemonymTable parse(Reader reader) throws IOException {
+        DemonymTable table = new DemonymTable();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab != 2) {
+                continue;
+            }
+            int slot = slot(line);
+            String demonym = line.substring(tab + 1).trim();
+            if (slot >= 0 && !demonym.isEmpty()) {
+                if (table.demonyms[slot] == null) {
+                    table.size++;
+                }
+                table.demonyms[slot] = demonym;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Looks up the demonym for an ISO 3166-1 alpha-2 code, ignoring case.
+     *
+     * @param countryCode The country code.
+     * @return The demonym, or null if the code is not in the table.
+     */
+    public String lookup(CharSequence countryCode) {
+        if (countryCode == null || countryCode.length() != 2) {
+            return null;
+        }
+        int slot = slot(countryCode);
+        return slot < 0 ? null : demonyms[slot];
+    }
+
+    /**
+     * @return The number of country codes in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    // Loaded on first use, or while building a native image
+    private static final class Bundled {
+        static final DemonymTable TABLE = fromClasspath(RESOURCE);
+    }
+
+    private static int slot(CharSequence code) {
+        int first = letter(code.charAt(0));
+        int second = letter(code.charAt(1));
+        return first < 0 || second < 0 ? -1 : first * LETTERS + second;
+    }
+
+    private static int letter(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,17 @@
+package com.freddyerf.customer.service;
+
+/**
+ * Which threads run the blocking work of the customer endpoints.
+ */
+public enum ExecutionMode {
+
+    /**
+     * The Quarkus worker pool thread that received the request (bounded by {@code quarkus.thread-pool.max-threads}).
+     */
+    WORKER,
+
+    /**
+     * A new virtual thread per request, so blocking JDBC and HTTP calls release their carrier thread.
+     */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,12 @@
+package com.freddyerf.customer.service;
+
+/**
+ * Thrown when the first request with an Idempotency-Key is still running after
+ * {@code customer.idempotency.wait-timeout}; the client should retry later.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException() {
+        super("A request with the same Idempotency-Key is still in progress");
+    }
+}
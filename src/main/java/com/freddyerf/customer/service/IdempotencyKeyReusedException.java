@@ -0,0 +1,11 @@
+package com.freddyerf.customer.service;
+
+/**
+ * Thrown when an Idempotency-Key is sent again with a request that differs from the one it was first used with.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("The Idempotency-Key was already used with a different request");
+    }
+}
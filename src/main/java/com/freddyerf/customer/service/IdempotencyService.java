@@ -0,0 +1,186 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.model.IdempotencyKey;
+import com.freddyerf.customer.model.IdempotentResponse;
+import com.freddyerf.customer.repository.IdempotencyKeyRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs requests at most once per client-supplied idempotency key, so that a client retrying a
+ * request it got no answer for gets the original response instead of a second execution.
+ * Duplicates that arrive while the first request is still running wait for its response.
+ */
+@ApplicationScoped
+public class IdempotencyService {
+
+    // How often a duplicate checks whether a request running on another instance has completed
+    private static final long POLL_MILLIS = 50;
+
+    @Inject
+    IdempotencyKeyRepository keyRepository;
+
+    @ConfigProperty(name = "customer.idempotency.ttl", defaultValue = "P1D")
+    Duration ttl;
+
+    @ConfigProperty(name = "customer.idempotency.wait-timeout", defaultValue = "PT30S")
+    Duration waitTimeout;
+
+    @ConfigProperty(name = "customer.idempotency.lock-timeout", defaultValue = "PT10M")
+    Duration lockTimeout;
+
+    private record Completed(String fingerprint, IdempotentResponse response) {
+    }
+
+    // Requests running on this instance, so duplicates arriving here wait without polling the database
+    private final ConcurrentHashMap<String, CompletableFuture<Completed>> running = new ConcurrentHashMap<>();
+
+    /**
+     * Runs a request unless another request with the same key already ran. The request runs in a
+     * transaction that also stores its response, so writes joining that transaction and the stored
+     * response commit together. Requests that fail with an exception or a 5xx status are rolled
+     * back, writes included, and not stored, so a retry runs them again.
+     *
+     * @param key The client-supplied idempotency key.
+     * @param request The operation and body of the request, which a retry must repeat exactly.
+     * @param action Runs the request.
+     * @return The response of the request, or the stored response of the first request with the key.
+     * @throws IdempotencyKeyReusedException if the key was already used with a different request.
+     * @throws IdempotencyKeyInProgressException if the first request with the key is still running after {@code customer.idempotency.wait-timeout}.
+     */
+    public IdempotentResponse execute(String key, String request, Supplier<IdempotentResponse> action) {
+        String fingerprint = fingerprint(request);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            CompletableFuture<Completed> mine = new CompletableFuture<>();
+            CompletableFuture<Completed> first = running.putIfAbsent(key, mine);
+            if (first != null) {
+                Completed completed = await(first, deadline);
+                if (completed != null) {
+                    return replay(completed.fingerprint(), completed.response(), fingerprint);
+                }
+                continue; // The first request failed and gave the key up, so this one runs
+            }
+            try {
+                Completed completed = claimAndRun(key, fingerprint, action, deadline);
+                mine.complete(completed);
+                return completed.response();
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                running.remove(key, mine);
+            }
+        }
+    }
+
+    @Scheduled(every = "${customer.idempotency.purge-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purge() {
+        Instant cutoff = Instant.now().minus(ttl);
+        QuarkusTransaction.requiringNew().run(() -> keyRepository.purgeBefore(cutoff));
+    }
+
+    private Completed claimAndRun(String key, String fingerprint, Supplier<IdempotentResponse> action, long deadline) {
+        while (true) {
+            Instant now = Instant.now();
+            if (QuarkusTransaction.requiringNew().call(() -> keyRepository.claim(key, fingerprint, now, now.minus(lockTimeout)))) {
+                return new Completed(fingerprint, run(key, action));
+            }
+            IdempotencyKey stored = QuarkusTransaction.requiringNew().call(() -> keyRepository.findById(key));
+            if (stored == null) {
+                continue; // Given up or purged since the claim failed
+            }
+            if (stored.isCompleted()) {
+                IdempotentResponse response = new IdempotentResponse(stored.getStatus(), stored.getBody(), stored.getEtag(), true);
+                return new Completed(stored.getFingerprint(), replay(stored.getFingerprint(), response, fingerprint));
+            }
+            if (!stored.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IdempotencyKeyInProgressException();
+            }
+            sleep();
+        }
+    }
+
+    // The transaction outlives no claim: once the lock timeout is over, a retry may take the key over.
+    // A 5xx response rolls back whatever the request wrote, so the released key runs it again from scratch.
+    private IdempotentResponse run(String key, Supplier<IdempotentResponse> action) {
+        IdempotentResponse response;
+        try {
+            response = QuarkusTransaction.requiringNew().timeout((int) lockTimeout.toSeconds()).call(() -> {
+                IdempotentResponse result = action.get();
+                if (result.status() >= 500) {
+                    QuarkusTransaction.setRollbackOnly();
+                } else {
+                    keyRepository.complete(key, result);
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            QuarkusTransaction.requiringNew().run(() -> keyRepository.release(key));
+            throw e;
+        }
+        if (response.status() >= 500) {
+            QuarkusTransaction.requiringNew().run(() -> keyRepository.release(key));
+        }
+        return response;
+    }
+
+    private static IdempotentResponse replay(String storedFingerprint, IdempotentResponse response, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        return response.replayed() ? response
+                : new IdempotentResponse(response.status(), response.body(), response.etag(), true);
+    }
+
+    // The outcome of the first request, or null if it failed and the key is free again
+    private static Completed await(CompletableFuture<Completed> first, long deadline) {
+        try {
+            return first.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request with the same Idempotency-Key", e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request with the same Idempotency-Key", e);
+        }
+    }
+
+    private static String fingerprint(String request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.model.PinningStats;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, using the
+ * {@code jdk.VirtualThreadPinned} JFR event. Only active in {@link ExecutionMode#VIRTUAL_THREADS} mode.
+ */
+@ApplicationScoped
+public class PinningMonitor {
+
+    private static final Logger LOG = Logger.getLogger(PinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int TOP_FRAMES = 10;
+
+    @ConfigProperty(name = "customer.execution.mode", defaultValue = "WORKER")
+    ExecutionMode mode;
+
+    @ConfigProperty(name = "customer.execution.pinning-threshold", defaultValue = "PT0.02S")
+    Duration threshold;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final AtomicLong totalPinnedNanos = new AtomicLong();
+    private final Map<String, LongAdder> frames = new ConcurrentHashMap<>();
+
+    private volatile RecordingStream stream;
+
+    void onStart(@Observes StartupEvent event) {
+        if (mode != ExecutionMode.VIRTUAL_THREADS) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * Retrieves the pinned virtual thread counters since startup.
+     *
+     * @return The number and total duration of pinned events, and the frames that caused the most of them.
+     */
+    public PinningStats getStats() {
+        Map<String, Long> top = new LinkedHashMap<>();
+        frames.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(TOP_FRAMES)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue().sum()));
+        return new PinningStats(stream != null, threshold.toMillis(),
+                pinnedEvents.sum(), Duration.ofNanos(totalPinnedNanos.get()).toMillis(), top);
+    }
+
+    private void record(RecordedEvent event) {
+        String frame = pinningFrame(event.getStackTrace());
+        pinnedEvents.increment();
+        totalPinnedNanos.addAndGet(event.getDuration().toNanos());
+        frames.computeIfAbsent(frame, key -> new LongAdder()).increment();
+        LOG.warnf("Virtual thread pinned for %d ms at %s", event.getDuration().toMillis(), frame);
+    }
+
+    // The pinning frame is the first one outside the JDK, since the JDK frames only show where the thread parked
+    private static String pinningFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+}
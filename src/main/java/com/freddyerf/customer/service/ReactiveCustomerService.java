@@ -0,0 +1,77 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.repository.ReactiveCustomerRepository;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Non-blocking counterpart of {@link CustomerService}.
+ * Reads go through the reactive PostgreSQL client. Creation resolves the demonym without
+ * blocking and only then moves to a worker thread for the insert, which stays on Hibernate
+ * ORM so the country counters and the second-level cache remain consistent.
+ */
+@ApplicationScoped
+public class ReactiveCustomerService {
+
+    @Inject
+    ReactiveCustomerRepository reactiveCustomerRepository;
+
+    @Inject
+    CustomerService customerService;
+
+    @Inject
+    CountryService countryService;
+
+    /**
+     * Creates and persists a new customer with a demonym based on their country code.
+     *
+     * @param customer The customer to be created.
+     * @return The persisted customer with the demonym set.
+     */
+    public Uni<Customer> createCustomer(Customer customer) {
+        return Uni.createFrom().completionStage(() -> countryService.getDemonymByCountryCodeAsync(customer.getCountry()))
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .map(demonym -> customerService.createCustomer(customer, demonym));
+    }
+
+    /**
+     * Retrieves one page of customers, ordered by ID.
+     *
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of customers and the cursor of the next page.
+     */
+    public Uni<Page<Customer>> getCustomers(Long after, Integer limit) {
+        int size = customerService.pageSize(limit);
+        return reactiveCustomerRepository.findPage(CustomerService.cursor(after), size + 1)
+                .map(rows -> CustomerService.toPage(rows, size));
+    }
+
+    /**
+     * Fetches one page of customers by their country code, ordered by ID.
+     *
+     * @param country The country code of the customers to retrieve.
+     * @param after The cursor returned with the previous page, or null for the first page.
+     * @param limit The requested page size, or null for the default. Capped at {@code customer.page.max-size}.
+     * @return The page of customers from the specified country and the cursor of the next page.
+     */
+    public Uni<Page<Customer>> getCustomersByCountry(String country, Long after, Integer limit) {
+        int size = customerService.pageSize(limit);
+        return reactiveCustomerRepository.findByCountry(country, CustomerService.cursor(after), size + 1)
+                .map(rows -> CustomerService.toPage(rows, size));
+    }
+
+    /**
+     * Gets a customer by their unique ID.
+     *
+     * @param id The ID of the customer to find.
+     * @return The found customer, or null if not found.
+     */
+    public Uni<Customer> getCustomerById(Long id) {
+        return reactiveCustomerRepository.findById(id);
+    }
+}
@@ -0,0 +1,61 @@
+package com.freddyerf.customer.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking work of a request according to {@code customer.execution.mode}.
+ * In {@link ExecutionMode#VIRTUAL_THREADS} mode the work is handed to a virtual thread
+ * with the CDI request context of the caller, and the worker thread is released as soon
+ * as the work is submitted.
+ */
+@ApplicationScoped
+public class RequestExecutor {
+
+    @ConfigProperty(name = "customer.execution.mode", defaultValue = "WORKER")
+    ExecutionMode mode;
+
+    @Inject
+    ThreadContext threadContext;
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Runs a blocking task on the thread selected by the execution mode.
+     *
+     * @param task The blocking task.
+     * @param <T> The type of the task result.
+     * @return A stage completed with the task result, or with the exception it threw.
+     */
+    public <T> CompletionStage<T> submit(Supplier<T> task) {
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            return CompletableFuture.supplyAsync(threadContext.contextualSupplier(task), virtualThreads);
+        }
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return The configured execution mode.
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        virtualThreads.shutdown();
+    }
+}
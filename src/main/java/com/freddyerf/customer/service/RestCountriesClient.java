@@ -0,0 +1,188 @@
+package com.freddyerf.customer.service;
+
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * HTTP client of the REST Countries API.
+ * Every request is bounded by {@code country.api.connect-timeout} and {@code country.api.request-timeout}.
+ * A circuit breaker shared by the blocking and asynchronous calls fails fast while the API keeps
+ * failing, and a bulkhead caps the number of concurrent requests. Bulkhead rejections say nothing
+ * about the health of the API, so they do not count towards the breaker. Both can be tuned with the
+ * MicroProfile Fault Tolerance keys, e.g. {@code com.freddyerf.customer.service.RestCountriesClient/CircuitBreaker/delay}.
+ */
+@ApplicationScoped
+@CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5, delay = 10, delayUnit = ChronoUnit.SECONDS, successThreshold = 2,
+        skipOn = BulkheadException.class)
+@Bulkhead(value = 16, waitingTaskQueue = 64)
+public class RestCountriesClient {
+
+    private static final String API_FIELDS = "demonyms";
+
+    @ConfigProperty(name = "country.api.base-url", defaultValue = "https://restcountries.com/v3.1/alpha/")
+    String baseUrl;
+
+    @ConfigProperty(name = "country.api.connect-timeout", defaultValue = "PT2S")
+    Duration connectTimeout;
+
+    @ConfigProperty(name = "country.api.request-timeout", defaultValue = "PT3S")
+    Duration requestTimeout;
+
+    @Inject
+    CustomerMetrics metrics;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    /**
+     * Queries the REST Countries API for the English male demonym of a country.
+     *
+     * @param countryCode The normalized country code.
+     * @return The demonym, or null if the API does not know the country code.
+     * @throws IOException if the request failed, timed out or the API answered with an unexpected status.
+     */
+    @CircuitBreakerName("country-api")
+    public String fetchDemonym(String countryCode) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(demonymRequest(countryCode), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            countFailure(e);
+            throw e;
+        } catch (InterruptedException e) {
+            metrics.countryApiInterrupted.increment();
+            throw e;
+        } finally {
+            CustomerMetrics.recordSince(metrics.countryApiRequests, start);
+        }
+        return demonymFrom(response);
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchDemonym}.
+     *
+     * @param countryCode The normalized country code.
+     * @return A future of the demonym, or of null if the API does not know the country code.
+     */
+    @CircuitBreakerName("country-api")
+    public CompletionStage<String> fetchDemonymAsync(String countryCode) {
+        long start = System.nanoTime();
+        return httpClient.sendAsync(demonymRequest(countryCode), HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> {
+                    CustomerMetrics.recordSince(metrics.countryApiRequests, start);
+                    if (failure != null) {
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure;
+                        countFailure(cause);
+                        throw new CompletionException(cause);
+                    }
+                    try {
+                        return demonymFrom(response);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    private HttpRequest demonymRequest(String countryCode) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + countryCode + "?fields=" + API_FIELDS))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    private String demonymFrom(HttpResponse<String> response) throws IOException {
+        metrics.countryApiResponse(response.statusCode());
+        if (response.statusCode() == 200) {
+            try {
+                return parseMaleDemonym(response.body());
+            } catch (RuntimeException e) {
+                metrics.countryApiInvalidResponses.increment();
+                throw new IOException("Unexpected demonym response", e);
+            }
+        }
+        if (response.statusCode() == 400 || response.statusCode() == 404) {
+            return null; // Demonym not found
+        }
+        throw new IOException("Error fetching demonym: " + response.statusCode());
+    }
+
+    private void countFailure(Throwable failure) {
+        if (failure instanceof HttpTimeoutException) {
+            metrics.countryApiTimeouts.increment();
+        } else {
+            metrics.countryApiIoErrors.increment();
+        }
+    }
+
+    // Streams the body for demonyms.eng.m, skipping everything else, so neither a tree nor
+    // reflection is involved. Returns null if the path is missing or not a string.
+    static String parseMaleDemonym(String body) {
+        try (JsonParser parser = Json.createParser(new StringReader(body))) {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+                return null;
+            }
+            if (!enterObject(parser, "demonyms") || !enterObject(parser, "eng") || !findKey(parser, "m")) {
+                return null;
+            }
+            return parser.next() == JsonParser.Event.VALUE_STRING ? parser.getString() : null;
+        }
+    }
+
+    // Moves into the object under a key of the current object
+    private static boolean enterObject(JsonParser parser, String key) {
+        if (!findKey(parser, key)) {
+            return false;
+        }
+        return parser.next() == JsonParser.Event.START_OBJECT;
+    }
+
+    // Moves to a key of the current object, skipping the values of the keys before it
+    private static boolean findKey(JsonParser parser, String key) {
+        while (parser.hasNext()) {
+            JsonParser.Event event = parser.next();
+            if (event == JsonParser.Event.END_OBJECT) {
+                return false;
+            }
+            if (parser.getString().equals(key)) {
+                return true;
+            }
+            switch (parser.next()) {
+                case START_OBJECT -> parser.skipObject();
+                case START_ARRAY -> parser.skipArray();
+                default -> {
+                }
+            }
+        }
+        return false;
+    }
+}
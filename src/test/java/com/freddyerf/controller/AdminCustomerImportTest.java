@@ -0,0 +1,188 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.repository.CustomerRepository;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk loads through POST /admin/customers/import and GET /admin/customers/export.
+ */
+@QuarkusTest
+class AdminCustomerImportTest {
+
+    private static final String EMAIL_DOMAIN = "@import.example.com";
+
+    @Inject
+    CustomerRepository customerRepository;
+
+    @Inject
+    CustomerService customerService;
+
+    @AfterEach
+    void cleanUp() {
+        imported().forEach(customer -> customerService.deleteCustomer(customer.getId()));
+    }
+
+    // Valid records are created with their demonym; invalid ones are reported by position
+    @Test
+    void testCsvImportReportsRejectedRecords() {
+        String csv = """
+                firstName,lastName,email,address,phone,country
+                Ada,Lovelace,ada%1$s,"1 Analytical Way, London",555-0001,US
+                Bad,Email,not-an-email,2 Road,555-0002,US
+
+                Alan,Turing,alan%1$s,3 Road,555-0003,ZZ
+                Grace,Hopper,grace%1$s,"4 ""Cobol"" Street",555-0004,DO
+                """.formatted(EMAIL_DOMAIN);
+
+        given().contentType("text/csv").body(csv)
+                .when().post("/admin/customers/import")
+                .then().statusCode(200)
+                .body("imported", equalTo(2))
+                .body("rejected", equalTo(2))
+                .body("errors.index", contains(1, 2));
+
+        List<Customer> customers = imported();
+        assertEquals(List.of("Lovelace", "Hopper"), customers.stream().map(Customer::getLastName).toList());
+        assertEquals("1 Analytical Way, London", customers.get(0).getAddress());
+        assertEquals("American", customers.get(0).getDemonym());
+        assertEquals("4 \"Cobol\" Street", customers.get(1).getAddress());
+        assertEquals("Dominican", customers.get(1).getDemonym());
+    }
+
+    // Imported customers get ids from the same sequence as customers created through the API
+    @Test
+    void testImportedIdsDoNotCollideWithApiIds() {
+        given().contentType("application/x-ndjson")
+                .body("{\"firstName\":\"Nd\",\"lastName\":\"Json\",\"email\":\"nd" + EMAIL_DOMAIN
+                        + "\",\"address\":\"5 Road\",\"phone\":\"555-0005\",\"country\":\"MX\"}\n{not json}\n")
+                .when().post("/admin/customers/import")
+                .then().statusCode(200)
+                .body("imported", equalTo(1))
+                .body("rejected", equalTo(1));
+
+        Customer api = new Customer();
+        api.setFirstName("Api");
+        api.setLastName("Created");
+        api.setEmail("api" + EMAIL_DOMAIN);
+        api.setAddress("6 Road");
+        api.setPhone("555-0006");
+        api.setCountry("US");
+        customerService.createCustomer(api);
+
+        assertEquals(2, imported().stream().map(Customer::getId).distinct().count());
+    }
+
+    // An import racing creates through the API loses no rows to id collisions, even while the
+    // creates start drawing from the sequence
+    @Test
+    void testConcurrentImportAndCreatesGetDistinctIds() throws Exception {
+        int rows = 500;
+        int creates = 50;
+        StringBuilder csv = new StringBuilder("firstName,lastName,email,address,phone,country\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Bulk,Row").append(i).append(",bulk").append(i).append(EMAIL_DOMAIN).append(",1 Road,555-0100,US\n");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> importing = executor.submit(() -> given().contentType("text/csv").body(csv.toString())
+                    .when().post("/admin/customers/import")
+                    .then().statusCode(200)
+                    .extract().jsonPath().getInt("imported"));
+            List<Future<Integer>> creating = new ArrayList<>();
+            for (int i = 0; i < creates; i++) {
+                Map<String, String> customer = Map.of("firstName", "Api", "lastName", "Row" + i,
+                        "email", "api" + i + EMAIL_DOMAIN, "address", "2 Road", "phone", "555-0101", "country", "US");
+                creating.add(executor.submit(() -> given().contentType(ContentType.JSON).body(customer)
+                        .when().post("/customers").statusCode()));
+            }
+
+            assertEquals(rows, importing.get());
+            for (Future<Integer> status : creating) {
+                assertEquals(200, status.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Customer> customers = imported();
+        assertEquals(rows + creates, customers.size());
+        assertEquals(rows + creates, customers.stream().map(Customer::getId).distinct().count());
+    }
+
+    // Records whose email is taken, ignoring case, are skipped and counted without failing the load
+    @Test
+    void testImportSkipsDuplicateEmails() {
+        String csv = """
+                firstName,lastName,email,address,phone,country
+                Dup,First,dup%1$s,1 Road,555-0010,US
+                Dup,Second,DUP%1$s,2 Road,555-0011,US
+                """.formatted(EMAIL_DOMAIN);
+
+        given().contentType("text/csv").body(csv)
+                .when().post("/admin/customers/import")
+                .then().statusCode(200)
+                .body("imported", equalTo(1))
+                .body("duplicates", equalTo(1));
+        given().contentType("text/csv").body(csv)
+                .when().post("/admin/customers/import")
+                .then().statusCode(200)
+                .body("imported", equalTo(0))
+                .body("duplicates", equalTo(2));
+
+        assertEquals(1, imported().size());
+    }
+
+    // An unknown header column fails the whole import
+    @Test
+    void testCsvImportRejectsUnknownColumn() {
+        given().contentType("text/csv").body("firstName,password\nAda,secret\n")
+                .when().post("/admin/customers/import")
+                .then().statusCode(400);
+    }
+
+    // Exports are served straight from COPY in both formats
+    @Test
+    void testExport() {
+        given().contentType("text/csv")
+                .body("firstName,lastName,email,address,phone,country\nLin,Export,lin" + EMAIL_DOMAIN + ",7 Road,555-0007,US\n")
+                .when().post("/admin/customers/import")
+                .then().statusCode(200);
+
+        given().accept("text/csv")
+                .when().get("/admin/customers/export")
+                .then().statusCode(200)
+                .body(containsString("id,firstName,secondName,lastName,secondLastName,email,address,phone,country,demonym,version"))
+                .body(containsString(",lin" + EMAIL_DOMAIN + ","));
+
+        given().accept("application/x-ndjson")
+                .when().get("/admin/customers/export")
+                .then().statusCode(200)
+                .body(containsString("lin" + EMAIL_DOMAIN));
+    }
+
+    private List<Customer> imported() {
+        return QuarkusTransaction.requiringNew().call(() ->
+                customerRepository.list("email like ?1 order by id", "%" + EMAIL_DOMAIN));
+    }
+}
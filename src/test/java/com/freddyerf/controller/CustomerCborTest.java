@@ -0,0 +1,72 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.controller.CustomerCbor;
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Content negotiation between JSON and CBOR on the customer listings.
+ */
+@QuarkusTest
+class CustomerCborTest {
+
+    @Inject
+    CustomerService customerService;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setFirstName("Cbor");
+        customer.setLastName("Test");
+        customer.setEmail("cbor.test." + System.nanoTime() + "@example.com");
+        customer.setAddress("1 Binary Road");
+        customer.setPhone("555-0000");
+        customer.setCountry("US");
+        customer = customerService.createCustomer(customer);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerService.deleteCustomer(customer.getId());
+    }
+
+    // Accept: application/cbor gets the page encoded as CBOR
+    @Test
+    void testListingNegotiatesCbor() {
+        Customer found = customerService.getCustomerById(customer.getId());
+
+        byte[] body = given().accept(CustomerCbor.APPLICATION_CBOR)
+                .queryParam("after", customer.getId() - 1).queryParam("limit", 1)
+                .when().get("/customers/US")
+                .then().statusCode(200)
+                .contentType(CustomerCbor.APPLICATION_CBOR)
+                .extract().asByteArray();
+
+        // The page has a next cursor when a newer US customer exists
+        assertTrue(Arrays.equals(body, CustomerCbor.encode(new Page<>(List.of(found), null)))
+                || Arrays.equals(body, CustomerCbor.encode(new Page<>(List.of(found), found.getId()))));
+    }
+
+    // JSON is still the default
+    @Test
+    void testListingDefaultsToJson() {
+        given().queryParam("limit", 1)
+                .when().get("/customers")
+                .then().statusCode(200)
+                .contentType("application/json");
+    }
+}
@@ -0,0 +1,161 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads the changes written by customer creates, updates and deletes through
+ * GET /customers/changes and the Server-Sent Events stream. Changes reach the feed on the
+ * next relay, so the tests wait for them instead of expecting them right after the write.
+ */
+@QuarkusTest
+class CustomerChangeFeedTest {
+
+    private static final long TIMEOUT_MILLIS = 15_000;
+
+    @Inject
+    CustomerService customerService;
+
+    @TestHTTPResource("/customers/changes/stream")
+    URI streamUri;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        createdIds.forEach(customerService::deleteCustomer);
+    }
+
+    // Creates, updates and deletes appear in the feed in the order they were committed
+    @Test
+    void testChangesAreListedInCommitOrder() throws Exception {
+        long since = customerService.getLatestChangePosition();
+        Customer customer = customerService.createCustomer(newCustomer("feed.order"));
+        Customer updated = newCustomer("feed.order");
+        updated.setAddress("2 Feed Road");
+        customerService.updateCustomer(customer.getId(), updated);
+        customerService.deleteCustomer(customer.getId());
+
+        List<Map<String, Object>> changes = awaitChanges(since, customer.getId(), 3);
+
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), changes.stream().map(change -> change.get("type")).toList());
+        assertEquals(0, changes.get(0).get("version"));
+        assertEquals("2 Feed Road", ((Map<?, ?>) changes.get(1).get("customer")).get("address"));
+        assertEquals(1, changes.get(1).get("version"));
+        assertNull(changes.get(2).get("customer"));
+        assertTrue(((Number) changes.get(0).get("position")).longValue() < ((Number) changes.get(2).get("position")).longValue());
+    }
+
+    // An update that changes nothing keeps the version and adds nothing to the feed
+    @Test
+    void testNoOpUpdateRecordsNoChange() throws Exception {
+        long since = customerService.getLatestChangePosition();
+        Customer customer = customerService.createCustomer(newCustomer("feed.noop"));
+
+        given().contentType(ContentType.JSON).body(customer)
+                .when().put("/customers/" + customer.getId())
+                .then().statusCode(200)
+                .header("ETag", "\"0\"");
+        customerService.deleteCustomer(customer.getId());
+
+        List<Map<String, Object>> changes = awaitChanges(since, customer.getId(), 2);
+
+        assertEquals(List.of("CREATED", "DELETED"), changes.stream().map(change -> change.get("type")).toList());
+    }
+
+    // The stream pushes changes after the requested position, with the position as event id
+    @Test
+    void testStreamPushesChanges() throws Exception {
+        long since = customerService.getLatestChangePosition();
+        Customer customer = customerService.createCustomer(newCustomer("feed.stream"));
+        createdIds.add(customer.getId());
+
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(streamUri + "?since=" + since))
+                        .header("Accept", "text/event-stream")
+                        .GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+
+        try (Stream<String> lines = response.body()) {
+            CompletableFuture<List<String>> event = CompletableFuture.supplyAsync(() -> {
+                List<String> fields = new ArrayList<>();
+                for (String line : (Iterable<String>) lines::iterator) {
+                    if (line.isEmpty()) {
+                        if (fields.stream().anyMatch(field -> field.contains("\"customerId\":" + customer.getId()))) {
+                            return fields;
+                        }
+                        fields.clear();
+                    } else {
+                        fields.add(line);
+                    }
+                }
+                return fields;
+            });
+            List<String> fields = event.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+            assertTrue(fields.stream().anyMatch(field -> field.matches("event: ?CREATED")), fields.toString());
+            assertTrue(fields.stream().anyMatch(field -> field.matches("id: ?\\d+")), fields.toString());
+        }
+    }
+
+    // Follows the feed from a position until the given number of changes of a customer has been relayed
+    private static List<Map<String, Object>> awaitChanges(long since, Long customerId, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        List<Map<String, Object>> changes = new ArrayList<>();
+        Long cursor = since;
+        while (System.currentTimeMillis() < deadline) {
+            JsonPath page = given().queryParam("since", cursor).queryParam("limit", 500)
+                    .when().get("/customers/changes")
+                    .then().statusCode(200)
+                    .extract().jsonPath();
+            List<Map<String, Object>> items = page.getList("items");
+            for (Map<String, Object> item : items) {
+                if (customerId.equals(((Number) item.get("customerId")).longValue())) {
+                    changes.add(item);
+                }
+                cursor = ((Number) item.get("position")).longValue();
+            }
+            if (changes.size() >= count) {
+                return changes;
+            }
+            if (page.get("nextCursor") == null) {
+                Thread.sleep(100);
+            }
+        }
+        fail("Only " + changes.size() + " of " + count + " changes of customer " + customerId + " were relayed");
+        return changes;
+    }
+
+    private static Customer newCustomer(String name) {
+        Customer customer = new Customer();
+        customer.setFirstName("Feed");
+        customer.setLastName("Customer");
+        customer.setEmail(name + "." + System.nanoTime() + "@changes.example.com");
+        customer.setAddress("1 Feed Road");
+        customer.setPhone("555-0100");
+        customer.setCountry("US");
+        return customer;
+    }
+}
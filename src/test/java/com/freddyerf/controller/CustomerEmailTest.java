@@ -0,0 +1,123 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Email uniqueness, ignoring case: lookups by email and the 409 for a taken email.
+ */
+@QuarkusTest
+class CustomerEmailTest {
+
+    @Inject
+    CustomerService customerService;
+
+    private final List<Long> createdIds = new ArrayList<>();
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customerService.createCustomer(newCustomer("Email.Test." + System.nanoTime() + "@example.com"));
+        createdIds.add(customer.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        createdIds.forEach(customerService::deleteCustomer);
+    }
+
+    // A customer is found by their email in any case
+    @Test
+    void testGetByEmailIgnoresCase() {
+        given().when().get("/customers/by-email/" + customer.getEmail().toUpperCase(Locale.ROOT))
+                .then().statusCode(200)
+                .header("ETag", notNullValue())
+                .body("id", equalTo(customer.getId().intValue()));
+
+        given().when().get("/customers/by-email/nobody." + System.nanoTime() + "@example.com")
+                .then().statusCode(404);
+    }
+
+    // Creating a customer with a taken email, in any case, is a conflict
+    @Test
+    void testCreateWithTakenEmailIsConflict() {
+        Customer duplicate = newCustomer(customer.getEmail().toLowerCase(Locale.ROOT));
+
+        given().contentType(ContentType.JSON).body(duplicate)
+                .when().post("/customers")
+                .then().statusCode(409)
+                .body(containsString("already exists"));
+    }
+
+    // The reactive create reports a taken email as a conflict too
+    @Test
+    void testReactiveCreateWithTakenEmailIsConflict() {
+        Customer duplicate = newCustomer(customer.getEmail().toUpperCase(Locale.ROOT));
+
+        given().contentType(ContentType.JSON).body(duplicate)
+                .when().post("/reactive/customers")
+                .then().statusCode(409)
+                .body(containsString("already exists"));
+    }
+
+    // Updating a customer to another customer's email is a conflict and changes nothing
+    @Test
+    void testUpdateToTakenEmailIsConflict() {
+        Customer other = customerService.createCustomer(newCustomer("email.other." + System.nanoTime() + "@example.com"));
+        createdIds.add(other.getId());
+
+        given().contentType(ContentType.JSON).body(Map.of("email", customer.getEmail()))
+                .when().patch("/customers/" + other.getId())
+                .then().statusCode(409);
+
+        other.setEmail(customer.getEmail());
+        given().contentType(ContentType.JSON).body(other)
+                .when().put("/customers/" + other.getId())
+                .then().statusCode(409);
+
+        given().when().get("/customers/" + other.getId())
+                .then().statusCode(200)
+                .body("email", containsString("email.other."));
+    }
+
+    // In a batch, only the customer with a taken email fails
+    @Test
+    void testBatchReportsTakenEmail() {
+        Customer fresh = newCustomer("email.batch." + System.nanoTime() + "@example.com");
+        Customer duplicate = newCustomer(customer.getEmail());
+
+        List<Integer> ids = given().contentType(ContentType.JSON).body(List.of(fresh, duplicate))
+                .when().post("/customers/batch")
+                .then().statusCode(200)
+                .body("errors.index", equalTo(List.of(1)))
+                .extract().jsonPath().getList("ids");
+        createdIds.add(ids.get(0).longValue());
+    }
+
+    private static Customer newCustomer(String email) {
+        Customer customer = new Customer();
+        customer.setFirstName("Email");
+        customer.setLastName("Test");
+        customer.setEmail(email);
+        customer.setAddress("1 Unique Street");
+        customer.setPhone("555-0000");
+        customer.setCountry("US");
+        return customer;
+    }
+}
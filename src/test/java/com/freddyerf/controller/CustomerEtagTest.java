@@ -0,0 +1,108 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Conditional requests on a single customer: ETags, If-None-Match and If-Match.
+ */
+@QuarkusTest
+class CustomerEtagTest {
+
+    @Inject
+    CustomerService customerService;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setFirstName("Etag");
+        customer.setLastName("Test");
+        customer.setEmail("etag.test." + System.nanoTime() + "@example.com");
+        customer.setAddress("1 Etag Street");
+        customer.setPhone("555-0000");
+        customer.setCountry("US");
+        customer = customerService.createCustomer(customer);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerService.deleteCustomer(customer.getId());
+    }
+
+    // A client that already has the current version gets a 304 without a body
+    @Test
+    void testIfNoneMatchReturnsNotModified() {
+        String etag = given().when().get("/customers/" + customer.getId())
+                .then().statusCode(200)
+                .extract().header("ETag");
+
+        given().header("If-None-Match", etag)
+                .when().get("/customers/" + customer.getId())
+                .then().statusCode(304)
+                .body(emptyString());
+    }
+
+    // An update with a stale If-Match is rejected; with the current one it applies and changes the ETag
+    @Test
+    void testIfMatchGuardsUpdate() {
+        customer.setAddress("2 Etag Street");
+
+        given().contentType(ContentType.JSON).header("If-Match", "\"41\"").body(customer)
+                .when().put("/customers/" + customer.getId())
+                .then().statusCode(412);
+
+        given().contentType(ContentType.JSON).header("If-Match", "\"0\"").body(customer)
+                .when().put("/customers/" + customer.getId())
+                .then().statusCode(200)
+                .header("ETag", "\"1\"")
+                .body("address", equalTo("2 Etag Street"));
+
+        given().contentType(ContentType.JSON).header("If-Match", "\"0\"").body(customer)
+                .when().put("/customers/" + customer.getId())
+                .then().statusCode(412);
+    }
+
+    // If-Match may list several tags: a match on any of them, or "*", lets the update through
+    @Test
+    void testIfMatchAcceptsAnyListedTag() {
+        customer.setAddress("3 Etag Street");
+
+        given().contentType(ContentType.JSON).header("If-Match", "\"41\", W/\"0\"").body(customer)
+                .when().put("/customers/" + customer.getId())
+                .then().statusCode(412);
+
+        given().contentType(ContentType.JSON).header("If-Match", "\"41\", \"0\"").body(customer)
+                .when().put("/customers/" + customer.getId())
+                .then().statusCode(200)
+                .header("ETag", "\"1\"");
+
+        customer.setAddress("4 Etag Street");
+        given().contentType(ContentType.JSON).header("If-Match", "*").body(customer)
+                .when().put("/customers/" + customer.getId())
+                .then().statusCode(200)
+                .header("ETag", "\"2\"");
+    }
+
+    // A delete with a stale If-Match leaves the customer in place
+    @Test
+    void testIfMatchGuardsDelete() {
+        given().header("If-Match", "\"41\"")
+                .when().delete("/customers/" + customer.getId())
+                .then().statusCode(412);
+
+        given().when().get("/customers/" + customer.getId())
+                .then().statusCode(200);
+    }
+}
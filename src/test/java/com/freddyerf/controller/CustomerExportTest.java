@@ -0,0 +1,90 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.repository.CustomerRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a generated dataset through GET /customers/export.
+ * The row count comes from the {@code export.test.rows} system property; the
+ * {@code export-memory} Maven profile runs it with a large dataset under a small heap,
+ * where anything that buffers the whole table fails with an OutOfMemoryError.
+ */
+@QuarkusTest
+class CustomerExportTest {
+
+    private static final int ROWS = Integer.getInteger("export.test.rows", 5_000);
+    private static final int CHUNK = 1_000;
+    private static final String EMAIL_DOMAIN = "@export.example.com";
+
+    @Inject
+    CustomerRepository customerRepository;
+
+    @TestHTTPResource("/customers/export")
+    URI exportUri;
+
+    @BeforeEach
+    void seed() {
+        for (int start = 0; start < ROWS; start += CHUNK) {
+            int from = start;
+            int to = Math.min(start + CHUNK, ROWS);
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (int i = from; i < to; i++) {
+                    customerRepository.persist(newCustomer(i));
+                }
+                customerRepository.getEntityManager().flush();
+                customerRepository.getEntityManager().clear();
+            });
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        QuarkusTransaction.requiringNew().run(() -> customerRepository.delete("email like ?1", "%" + EMAIL_DOMAIN));
+    }
+
+    // Streams every customer as one JSON document per line
+    @Test
+    void testExportStreamsEveryCustomer() throws Exception {
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(exportUri).GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/x-ndjson", response.headers().firstValue("Content-Type").orElse(""));
+        long exported;
+        try (Stream<String> lines = response.body()) {
+            exported = lines
+                    .peek(line -> assertTrue(line.startsWith("{") && line.endsWith("}")))
+                    .filter(line -> line.contains(EMAIL_DOMAIN))
+                    .count();
+        }
+        assertEquals(ROWS, exported);
+    }
+
+    private static Customer newCustomer(int n) {
+        Customer customer = new Customer();
+        customer.setFirstName("Export");
+        customer.setLastName("Customer" + n);
+        customer.setEmail("customer" + n + EMAIL_DOMAIN);
+        customer.setAddress(n + " Export Road");
+        customer.setPhone("555-" + n);
+        customer.setCountry("US");
+        customer.setDemonym("American");
+        return customer;
+    }
+}
@@ -0,0 +1,124 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Searches by name, email and phone through GET /customers/search.
+ */
+@QuarkusTest
+class CustomerSearchTest {
+
+    @Inject
+    CustomerService customerService;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        create("Zebulon", "Quixwell", "zebulon.quixwell@search.example.com", "555-9001");
+        create("Zebediah", "Quixwell", "zeb.q@search.example.com", "555-9002");
+        create("Anna", "Zebrowski", "anna_z@search.example.com", "777-9003");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        createdIds.forEach(customerService::deleteCustomer);
+    }
+
+    // Prefix search ignores case and matches any of the searched fields
+    @Test
+    void testPrefixMatchesAnyFieldIgnoringCase() {
+        given().queryParam("q", "ZEB")
+                .when().get("/customers/search")
+                .then().statusCode(200)
+                .body("items.id", contains(id(0), id(1), id(2)));
+
+        given().queryParam("q", "777-90")
+                .when().get("/customers/search")
+                .then().statusCode(200)
+                .body("items.id", contains(id(2)));
+    }
+
+    // Wildcards in the query are matched literally
+    @Test
+    void testPrefixEscapesWildcards() {
+        given().queryParam("q", "anna_")
+                .when().get("/customers/search")
+                .then().statusCode(200)
+                .body("items.id", contains(id(2)));
+
+        given().queryParam("q", "zeb%q")
+                .when().get("/customers/search")
+                .then().statusCode(200)
+                .body("items", hasSize(0));
+    }
+
+    // Prefix results are paginated with the same cursor as the other listings
+    @Test
+    void testPrefixSearchIsPaginated() {
+        Integer cursor = given().queryParam("q", "quixwell").queryParam("limit", 1)
+                .when().get("/customers/search")
+                .then().statusCode(200)
+                .body("items.id", contains(id(0)))
+                .body("nextCursor", notNullValue())
+                .extract().path("nextCursor");
+
+        given().queryParam("q", "quixwell").queryParam("limit", 1).queryParam("after", cursor)
+                .when().get("/customers/search")
+                .then().statusCode(200)
+                .body("items.id", contains(id(1)));
+    }
+
+    // Fuzzy search still finds a misspelled name
+    @Test
+    void testFuzzyToleratesTypos() {
+        given().queryParam("q", "quixwel").queryParam("mode", "fuzzy")
+                .when().get("/customers/search")
+                .then().statusCode(200)
+                .body("items.id", hasItem(id(0)))
+                .body("nextCursor", nullValue());
+    }
+
+    // Queries too short to use the indexes and unknown modes are rejected
+    @Test
+    void testInvalidSearchIsRejected() {
+        given().queryParam("q", "ze")
+                .when().get("/customers/search")
+                .then().statusCode(400);
+
+        given().queryParam("q", "zeb").queryParam("mode", "regex")
+                .when().get("/customers/search")
+                .then().statusCode(400);
+    }
+
+    private Integer id(int index) {
+        return createdIds.get(index).intValue();
+    }
+
+    private void create(String firstName, String lastName, String email, String phone) {
+        Customer customer = new Customer();
+        customer.setFirstName(firstName);
+        customer.setLastName(lastName);
+        customer.setEmail(email);
+        customer.setAddress("1 Search Street");
+        customer.setPhone(phone);
+        customer.setCountry("US");
+        createdIds.add(customerService.createCustomer(customer).getId());
+    }
+}
@@ -0,0 +1,151 @@
+package com.freddyerf.controller;
+
+import com.freddyerf.customer.repository.CustomerRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retries POST /customers and POST /customers/batch with an Idempotency-Key.
+ */
+@QuarkusTest
+class IdempotencyKeyTest {
+
+    private static final String EMAIL_DOMAIN = "@idempotency.example.com";
+
+    @Inject
+    CustomerRepository customerRepository;
+
+    @AfterEach
+    void cleanUp() {
+        QuarkusTransaction.requiringNew().run(() -> customerRepository.delete("email like ?1", "%" + EMAIL_DOMAIN));
+    }
+
+    // A retry with the same key returns the stored response and creates nothing
+    @Test
+    void testRetryReturnsStoredResponse() {
+        String key = UUID.randomUUID().toString();
+        Map<String, Object> customer = newCustomer("retry");
+
+        Response first = create(key, customer);
+        Response retry = create(key, customer);
+
+        assertEquals(200, first.statusCode());
+        assertNull(first.header(CustomerController.IDEMPOTENT_REPLAYED));
+        assertEquals(200, retry.statusCode());
+        assertEquals("true", retry.header(CustomerController.IDEMPOTENT_REPLAYED));
+        assertEquals(first.jsonPath().getLong("id"), retry.jsonPath().getLong("id"));
+        assertEquals(first.header("ETag"), retry.header("ETag"));
+        assertEquals(1, countByEmail(customer));
+    }
+
+    // Reusing a key for another request is rejected
+    @Test
+    void testKeyReusedWithDifferentBodyIsRejected() {
+        String key = UUID.randomUUID().toString();
+
+        assertEquals(200, create(key, newCustomer("first")).statusCode());
+        assertEquals(422, create(key, newCustomer("second")).statusCode());
+    }
+
+    // Concurrent duplicates wait for the first request and all get its customer
+    @Test
+    void testConcurrentDuplicatesCreateOneCustomer() throws Exception {
+        String key = UUID.randomUUID().toString();
+        Map<String, Object> customer = newCustomer("concurrent");
+        int duplicates = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        List<Long> ids = new ArrayList<>();
+        try {
+            List<Callable<Response>> requests = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                requests.add(() -> create(key, customer));
+            }
+            for (Future<Response> result : executor.invokeAll(requests)) {
+                Response response = result.get();
+                assertEquals(200, response.statusCode());
+                ids.add(response.jsonPath().getLong("id"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, ids.stream().distinct().count());
+        assertEquals(1, countByEmail(customer));
+    }
+
+    // Batches are covered by the same keys
+    @Test
+    void testBatchRetryReturnsStoredResult() {
+        String key = UUID.randomUUID().toString();
+        List<Map<String, Object>> batch = List.of(newCustomer("batch1"), newCustomer("batch2"));
+
+        List<Long> ids = given().contentType("application/json").header(CustomerController.IDEMPOTENCY_KEY, key).body(batch)
+                .when().post("/customers/batch")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("ids", Long.class);
+        given().contentType("application/json").header(CustomerController.IDEMPOTENCY_KEY, key).body(batch)
+                .when().post("/customers/batch")
+                .then().statusCode(200)
+                .header(CustomerController.IDEMPOTENT_REPLAYED, "true")
+                .body("errors[0]", nullValue());
+
+        assertEquals(2, ids.size());
+        assertEquals(1, countByEmail(batch.get(0)));
+        assertEquals(1, countByEmail(batch.get(1)));
+    }
+
+    // A batch with a key commits in one transaction, and still rejects only the customers whose email is taken
+    @Test
+    void testBatchWithKeyRejectsTakenEmails() {
+        String key = UUID.randomUUID().toString();
+        Map<String, Object> customer = newCustomer("batch.taken");
+        List<Map<String, Object>> batch = List.of(customer, newCustomer("batch.fresh"), customer);
+
+        given().contentType("application/json").header(CustomerController.IDEMPOTENCY_KEY, key).body(batch)
+                .when().post("/customers/batch")
+                .then().statusCode(200)
+                .body("errors.index", equalTo(List.of(2)))
+                .body("ids[2]", nullValue());
+
+        assertEquals(1, countByEmail(batch.get(0)));
+        assertEquals(1, countByEmail(batch.get(1)));
+    }
+
+    private static Response create(String key, Map<String, Object> customer) {
+        return given().contentType("application/json").header(CustomerController.IDEMPOTENCY_KEY, key).body(customer)
+                .when().post("/customers");
+    }
+
+    private long countByEmail(Map<String, Object> customer) {
+        return QuarkusTransaction.requiringNew().call(() -> customerRepository.count("email", customer.get("email")));
+    }
+
+    private static Map<String, Object> newCustomer(String name) {
+        return Map.of(
+                "firstName", "Idem",
+                "lastName", "Potent",
+                "email", name + "." + System.nanoTime() + EMAIL_DOMAIN,
+                "address", "1 Retry Road",
+                "phone", "555-0199",
+                "country", "US");
+    }
+}
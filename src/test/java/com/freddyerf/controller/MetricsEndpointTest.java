@@ -0,0 +1,26 @@
+package com.freddyerf.controller;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * Checks the meters of a request show up on the Prometheus scrape endpoint.
+ */
+@QuarkusTest
+class MetricsEndpointTest {
+
+    // A listing request is timed per endpoint and per repository query
+    @Test
+    void testListingIsMeasured() {
+        given().when().get("/customers?limit=1").then().statusCode(200);
+
+        given().when().get("/q/metrics").then()
+                .statusCode(200)
+                .body(containsString("customer_http_requests_seconds_count{endpoint=\"CustomerController.getAllCustomers\",outcome=\"SUCCESS\"}"))
+                .body(containsString("customer_repository_queries_seconds_count{query=\"findPage\"}"))
+                .body(containsString("customer_country_api_requests_seconds_bucket"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.freddyerf.controller;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The readiness probe reports the instance ready once the warm-up has finished.
+ */
+@QuarkusTest
+class ReadinessTest {
+
+    private static final long TIMEOUT_MILLIS = 15_000;
+
+    // The warm-up check passes shortly after startup and says how long it took
+    @Test
+    void testReadyAfterWarmup() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        int status;
+        while ((status = given().when().get("/q/health/ready").statusCode()) != 200
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(200, status);
+        assertEquals("UP", given().when().get("/q/health/ready")
+                .then().extract().jsonPath().getString("checks.find { it.name == 'warmup' }.status"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.service.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+
+    // Every added string is reported as possibly present
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("customer" + i + "@example.com");
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("customer" + i + "@example.com"));
+        }
+    }
+
+    // Once full, strings never added are reported at about the configured rate
+    @Test
+    void testFalsePositiveRateIsNearTarget() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("customer" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < INSERTIONS; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < INSERTIONS * 0.02, "False positives: " + falsePositives);
+    }
+
+    // An empty filter contains nothing
+    @Test
+    void testEmptyFilter() {
+        BloomFilter filter = new BloomFilter(10, 0.01);
+
+        assertFalse(filter.mightContain("john.doe@example.com"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    // Sizes and rates that cannot make a filter are rejected
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, Double.NaN));
+    }
+}
@@ -0,0 +1,108 @@
+package com.freddyerf.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the REST Countries API that can be made slow or failing.
+ * Points {@code country.api.base-url} at itself and switches the lookups to REMOTE_ONLY.
+ */
+public class CountryApiStub implements QuarkusTestResourceLifecycleManager {
+
+    private static final Map<String, String> DEMONYMS = Map.of(
+            "US", "American",
+            "DO", "Dominican",
+            "FR", "French",
+            "MX", "Mexican");
+
+    private static volatile int status = 200;
+    private static volatile Duration delay = Duration.ZERO;
+    private static final AtomicInteger requests = new AtomicInteger();
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the country API stub", e);
+        }
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/alpha/", CountryApiStub::handle);
+        server.start();
+        return Map.of(
+                "country.api.base-url", "http://localhost:" + server.getAddress().getPort() + "/alpha/",
+                "country.lookup.mode", "REMOTE_ONLY");
+    }
+
+    @Override
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Answers every request with the given status after the given delay. 200 answers with the demonym.
+     */
+    public static void respond(int status, Duration delay) {
+        CountryApiStub.status = status;
+        CountryApiStub.delay = delay;
+    }
+
+    public static void reset() {
+        respond(200, Duration.ZERO);
+        requests.set(0);
+        maxInFlight.set(0);
+    }
+
+    public static int requests() {
+        return requests.get();
+    }
+
+    public static int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (exchange) {
+            Thread.sleep(delay.toMillis());
+            String path = exchange.getRequestURI().getPath();
+            String demonym = DEMONYMS.get(path.substring(path.lastIndexOf('/') + 1));
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+            } else if (demonym == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                byte[] body = ("{\"demonyms\":{\"eng\":{\"f\":\"" + demonym + "\",\"m\":\"" + demonym + "\"}}}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import com.freddyerf.customer.service.CountryService;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the country lookups against a local stub of the REST Countries API that is made slow or failing.
+ */
+@QuarkusTest
+@TestProfile(CountryServiceResilienceTest.ResilienceProfile.class)
+@QuarkusTestResource(value = CountryApiStub.class, restrictToAnnotatedClass = true)
+class CountryServiceResilienceTest {
+
+    private static final String CLIENT = "com.freddyerf.customer.service.RestCountriesClient";
+
+    public static class ResilienceProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "country.api.request-timeout", "PT0.5S",
+                    "country.cache.ttl", "PT0.2S",
+                    CLIENT + "/CircuitBreaker/requestVolumeThreshold", "4",
+                    CLIENT + "/CircuitBreaker/delay", "60000",
+                    CLIENT + "/Bulkhead/value", "2");
+        }
+    }
+
+    @Inject
+    CountryService countryService;
+
+    @Inject
+    CircuitBreakerMaintenance circuitBreakerMaintenance;
+
+    @Inject
+    CustomerMetrics metrics;
+
+    @BeforeEach
+    void resetUpstream() {
+        CountryApiStub.reset();
+        circuitBreakerMaintenance.resetAll();
+    }
+
+    // A hung API is abandoned after the request timeout
+    @Test
+    void testSlowApiTimesOut() {
+        CountryApiStub.respond(200, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertNull(countryService.getDemonymByCountryCode("FR"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    // Once the API keeps failing, lookups fail fast without calling it
+    @Test
+    void testCircuitOpensWhileApiFails() {
+        CountryApiStub.respond(503, Duration.ZERO);
+
+        for (int i = 0; i < 4; i++) {
+            assertNull(countryService.getDemonymByCountryCode("MX"));
+        }
+        int requestsBeforeOpen = CountryApiStub.requests();
+        for (int i = 0; i < 10; i++) {
+            assertNull(countryService.getDemonymByCountryCode("MX"));
+        }
+
+        assertEquals(4, requestsBeforeOpen);
+        assertEquals(requestsBeforeOpen, CountryApiStub.requests());
+    }
+
+    // An expired demonym is served while the API fails
+    @Test
+    void testStaleDemonymServedWhileApiFails() throws Exception {
+        assertEquals("Dominican", countryService.getDemonymByCountryCode("DO"));
+        Thread.sleep(300);
+        CountryApiStub.respond(503, Duration.ZERO);
+        long staleHits = countryService.getCacheStats().staleHits();
+
+        assertEquals("Dominican", countryService.getDemonymByCountryCode("DO"));
+        assertEquals(staleHits + 1, countryService.getCacheStats().staleHits());
+    }
+
+    // Only the lookup that calls the API is timed as remote, the cached ones as cache lookups
+    @Test
+    void testCachedLookupsAreNotTimedAsRemote() {
+        long remote = metrics.countryLookupRemote.count();
+        long cached = metrics.countryLookupCache.count();
+
+        assertEquals("American", countryService.getDemonymByCountryCode("US"));
+        assertEquals("American", countryService.getDemonymByCountryCode("US"));
+
+        assertEquals(remote + 1, metrics.countryLookupRemote.count());
+        assertEquals(cached + 1, metrics.countryLookupCache.count());
+    }
+
+    // No more than the bulkhead size of requests reach the API at once
+    @Test
+    void testBulkheadLimitsConcurrentCalls() throws Exception {
+        CountryApiStub.respond(200, Duration.ofMillis(300));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> lookups = new ArrayList<>();
+            for (char c = 'A'; c < 'I'; c++) {
+                String code = "Q" + c;
+                lookups.add(() -> countryService.getDemonymByCountryCode(code));
+            }
+            executor.invokeAll(lookups);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(CountryApiStub.maxInFlight() <= 2);
+        assertTrue(CountryApiStub.requests() < 8);
+    }
+}
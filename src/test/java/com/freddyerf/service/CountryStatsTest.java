@@ -0,0 +1,81 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.model.CountryStats;
+import com.freddyerf.customer.repository.CountryStatsRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs many concurrent writers of the same country's customer count, each write in its own transaction.
+ */
+@QuarkusTest
+class CountryStatsTest {
+
+    private static final String COUNTRY = "XQ"; // No customer has it
+    private static final int WRITERS = 8;
+    private static final int WRITES_PER_WRITER = 50;
+
+    @Inject
+    CountryStatsRepository countryStatsRepository;
+
+    @AfterEach
+    void cleanUp() {
+        QuarkusTransaction.requiringNew().run(() -> countryStatsRepository.delete("country", COUNTRY));
+    }
+
+    // Concurrent writes of one country lose no update and are spread over several rows
+    @Test
+    void testConcurrentWritesToSameCountry() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Callable<Void>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                writers.add(() -> {
+                    for (int j = 0; j < WRITES_PER_WRITER; j++) {
+                        QuarkusTransaction.requiringNew().run(() -> countryStatsRepository.addCustomers(COUNTRY, 1));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> writer : executor.invokeAll(writers)) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(WRITERS * WRITES_PER_WRITER, customersOf(COUNTRY));
+        assertTrue(QuarkusTransaction.requiringNew().call(() -> countryStatsRepository.count("country", COUNTRY)) > 1);
+    }
+
+    // Removing customers lowers the summed count whichever slot the delta lands on
+    @Test
+    void testNegativeDeltasAreSummed() {
+        QuarkusTransaction.requiringNew().run(() -> countryStatsRepository.addCustomers(COUNTRY, 5));
+        for (int i = 0; i < 3; i++) {
+            QuarkusTransaction.requiringNew().run(() -> countryStatsRepository.addCustomers(COUNTRY, -1));
+        }
+
+        assertEquals(2, customersOf(COUNTRY));
+    }
+
+    private long customersOf(String country) {
+        return QuarkusTransaction.requiringNew().call(countryStatsRepository::findAllWithCustomers).stream()
+                .filter(stats -> stats.getCountry().equals(country))
+                .mapToLong(CountryStats::getCustomers)
+                .findFirst()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.EntityCacheStats;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that repeated reads are served from the second-level and query caches,
+ * and that writes invalidate them.
+ */
+@QuarkusTest
+class CustomerCacheTest {
+
+    @Inject
+    CustomerService customerService;
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        customer = new Customer();
+        customer.setFirstName("Cache");
+        customer.setLastName("Test");
+        customer.setEmail("cache.test." + System.nanoTime() + "@example.com");
+        customer.setAddress("1 Cache Lane");
+        customer.setPhone("555-0000");
+        customer.setCountry("AD");
+        customer = customerService.createCustomer(customer);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerService.deleteCustomer(customer.getId());
+    }
+
+    // A second read by id in a new session is a second-level cache hit
+    @Test
+    void testGetByIdIsServedFromCache() {
+        readById();
+        long hitsBefore = customerService.getCacheStats().entityHits();
+
+        Customer cached = readById();
+
+        assertEquals(customer.getEmail(), cached.getEmail());
+        assertTrue(customerService.getCacheStats().entityHits() > hitsBefore);
+    }
+
+    // Repeating a by-country query is a query cache hit until a customer is written
+    @Test
+    void testByCountryQueryIsCachedAndInvalidatedOnUpdate() {
+        readByCountry();
+        EntityCacheStats afterFirstRead = customerService.getCacheStats();
+
+        readByCountry();
+        EntityCacheStats afterSecondRead = customerService.getCacheStats();
+        assertEquals(afterFirstRead.queryHits() + 1, afterSecondRead.queryHits());
+
+        Customer update = new Customer();
+        update.setEmail(customer.getEmail());
+        update.setAddress("2 Cache Lane");
+        update.setPhone(customer.getPhone());
+        update.setCountry(customer.getCountry());
+        customerService.updateCustomer(customer.getId(), update);
+
+        assertEquals("2 Cache Lane", readByCountry().getAddress());
+        EntityCacheStats afterUpdate = customerService.getCacheStats();
+        assertEquals(afterSecondRead.queryHits(), afterUpdate.queryHits());
+        assertTrue(afterUpdate.queryMisses() > afterSecondRead.queryMisses());
+    }
+
+    private Customer readById() {
+        return QuarkusTransaction.requiringNew().call(() -> customerService.getCustomerById(customer.getId()));
+    }
+
+    private Customer readByCountry() {
+        return QuarkusTransaction.requiringNew().call(() -> customerService
+                .getCustomersByCountry("AD", customer.getId() - 1, 1)
+                .items().get(0));
+    }
+}
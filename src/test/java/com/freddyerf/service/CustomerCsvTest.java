@@ -0,0 +1,63 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.service.CustomerCsv;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCsvTest {
+
+    // Quoted fields may contain separators, doubled quotes and line breaks
+    @Test
+    void testReadsQuotedFields() throws Exception {
+        BufferedReader in = reader("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\"multi\nline\",x,y\n");
+
+        assertEquals(List.of("a", "b,c", "say \"hi\""), CustomerCsv.readRecord(in));
+        assertEquals(List.of("multi\nline", "x", "y"), CustomerCsv.readRecord(in));
+        assertNull(CustomerCsv.readRecord(in));
+    }
+
+    // Unquoted empty fields are null, quoted ones are empty strings
+    @Test
+    void testDistinguishesNullFromEmpty() throws Exception {
+        List<String> record = CustomerCsv.readRecord(reader(",\"\",z"));
+
+        assertEquals(Arrays.asList(null, "", "z"), record);
+    }
+
+    // An empty line is a blank record
+    @Test
+    void testBlankLine() throws Exception {
+        BufferedReader in = reader("\na\n");
+
+        assertTrue(CustomerCsv.isBlank(CustomerCsv.readRecord(in)));
+        assertFalse(CustomerCsv.isBlank(CustomerCsv.readRecord(in)));
+    }
+
+    // An unterminated quote is an error rather than a silently truncated record
+    @Test
+    void testUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> CustomerCsv.readRecord(reader("a,\"b")));
+    }
+
+    // Written records read back to the same fields
+    @Test
+    void testWriteThenRead() throws Exception {
+        List<String> fields = Arrays.asList("O\"Brien", null, "", "1, Main St\nApt 2");
+        StringWriter out = new StringWriter();
+
+        CustomerCsv.writeRecord(out, fields);
+
+        assertEquals(fields, CustomerCsv.readRecord(reader(out.toString())));
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}
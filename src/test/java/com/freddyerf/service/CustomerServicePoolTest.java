@@ -0,0 +1,96 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.service.CountryService;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs many concurrent creates against a slow country lookup with a tiny connection pool.
+ * When the lookup ran inside the transaction every request pinned a connection for the
+ * whole lookup and most of them timed out waiting for the pool.
+ */
+@QuarkusTest
+@TestProfile(CustomerServicePoolTest.SmallPoolProfile.class)
+class CustomerServicePoolTest {
+
+    private static final int CONCURRENT_REQUESTS = 20;
+    private static final long LOOKUP_DELAY_MILLIS = 500;
+
+    public static class SmallPoolProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "quarkus.datasource.jdbc.max-size", "2",
+                    "quarkus.datasource.jdbc.acquisition-timeout", "PT1S");
+        }
+    }
+
+    @InjectMock
+    CountryService countryService;
+
+    @Inject
+    CustomerService customerService;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        createdIds.forEach(customerService::deleteCustomer);
+    }
+
+    // A slow country API no longer exhausts the connection pool
+    @Test
+    void testSlowLookupDoesNotExhaustPool() throws Exception {
+        Mockito.when(countryService.getDemonymByCountryCode("US")).thenAnswer(invocation -> {
+            Thread.sleep(LOOKUP_DELAY_MILLIS);
+            return "American";
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            List<Callable<Customer>> requests = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                int n = i;
+                requests.add(() -> customerService.createCustomer(newCustomer(n)));
+            }
+            for (Future<Customer> result : executor.invokeAll(requests)) {
+                Customer created = result.get();
+                assertNotNull(created.getId());
+                createdIds.add(created.getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(CONCURRENT_REQUESTS, createdIds.size());
+    }
+
+    private static Customer newCustomer(int n) {
+        Customer customer = new Customer();
+        customer.setFirstName("Pool");
+        customer.setLastName("Test" + n);
+        customer.setEmail("pool.test" + n + "." + System.nanoTime() + "@example.com");
+        customer.setAddress(n + " Main St");
+        customer.setPhone("555-" + n);
+        customer.setCountry("US");
+        return customer;
+    }
+}
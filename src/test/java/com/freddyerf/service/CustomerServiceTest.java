@@ -1,18 +1,30 @@
 package com.freddyerf.service;
 
+import com.freddyerf.customer.model.BatchResult;
 import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.repository.CountryStatsRepository;
+import com.freddyerf.customer.repository.CustomerChangeRepository;
 import com.freddyerf.customer.repository.CustomerRepository;
+import com.freddyerf.customer.service.CountryLookupUnavailableException;
 import com.freddyerf.customer.service.CountryService;
 import com.freddyerf.customer.service.CustomerService;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionManager;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
@@ -28,9 +40,18 @@ class CustomerServiceTest {
     @InjectMock
     CountryService countryService;
 
+    @InjectMock
+    CountryStatsRepository countryStatsRepository;
+
+    @InjectMock
+    CustomerChangeRepository changeRepository;
+
     @Inject
     CustomerService customerService;
 
+    @Inject
+    TransactionManager transactionManager;
+
     private Customer createValidCustomer() {
         Customer customer = new Customer();
         customer.setFirstName("John");
@@ -43,15 +64,67 @@ class CustomerServiceTest {
     }
 
 
-    // Tests retrieving all customers successfully
+    // Tests retrieving the last page of customers successfully
     @Test
     void testGetAllCustomers() {
         List<Customer> customers = List.of(createValidCustomer(), createValidCustomer());
-        Mockito.when(customerRepository.listAll()).thenReturn(customers);
+        Mockito.when(customerRepository.findPage(0L, 11)).thenReturn(customers);
 
-        List<Customer> result = customerService.getAllCustomers();
+        Page<Customer> result = customerService.getCustomers(null, 10);
 
-        assertEquals(2, result.size());
+        assertEquals(2, result.items().size());
+        assertNull(result.nextCursor());
+    }
+
+    // Verifies a full page returns the cursor of its last customer
+    @Test
+    void testGetCustomersReturnsNextCursor() {
+        List<Customer> customers = new ArrayList<>();
+        for (long id = 11; id <= 13; id++) {
+            Customer customer = createValidCustomer();
+            customer.setId(id);
+            customers.add(customer);
+        }
+        Mockito.when(customerRepository.findPage(10L, 3)).thenReturn(customers);
+
+        Page<Customer> result = customerService.getCustomers(10L, 2);
+
+        assertEquals(2, result.items().size());
+        assertEquals(12L, result.nextCursor());
+    }
+
+    // Verifies the page size is capped by the server
+    @Test
+    void testGetCustomersCapsPageSize() {
+        Mockito.when(customerRepository.findByCountry(Mockito.eq("US"), Mockito.eq(0L), Mockito.anyInt()))
+                .thenReturn(List.of());
+
+        customerService.getCustomersByCountry("US", null, 1_000_000);
+
+        Mockito.verify(customerRepository).findByCountry("US", 0L, 501);
+    }
+
+    // Requested fields are selected with the id first and the cursor taken from the projected id
+    @Test
+    void testGetCustomerFieldsProjectsRequestedFields() {
+        List<Map<String, Object>> rows = List.of(
+                Map.of("id", 11L, "email", "a@example.com"),
+                Map.of("id", 12L, "email", "b@example.com"),
+                Map.of("id", 13L, "email", "c@example.com"));
+        Mockito.when(customerRepository.findPageFields(List.of("id", "email", "country"), 10L, 3)).thenReturn(rows);
+
+        Page<Map<String, Object>> result = customerService.getCustomerFields(" email, country,id,email ", 10L, 2);
+
+        assertEquals(2, result.items().size());
+        assertEquals(12L, result.nextCursor());
+    }
+
+    // Unknown fields are rejected before any query runs
+    @Test
+    void testGetCustomerFieldsRejectsUnknownField() {
+        assertThrows(IllegalArgumentException.class,
+                () -> customerService.getCustomerFieldsByCountry("US", "email,password", null, null));
+        Mockito.verifyNoInteractions(customerRepository);
     }
 
     // Verifies behavior when a customer ID is not found
@@ -102,45 +175,77 @@ class CustomerServiceTest {
     // Checks deletion behavior for a customer that doesn't exist
     @Test
     void testDeleteNonExistentCustomer() {
-        Mockito.when(customerRepository.deleteById(1L)).thenReturn(false);
+        Mockito.when(customerRepository.findById(1L)).thenReturn(null);
 
         boolean result = customerService.deleteCustomer(1L);
 
         assertFalse(result);
+        Mockito.verify(customerRepository, Mockito.never()).delete(any(Customer.class));
     }
 
-    // Confirms a customer can be updated successfully
+    // Confirms a customer can be updated successfully, without a lookup while the country stays the same
     @Test
     void testUpdateExistingCustomerSuccess() {
         Long customerId = 1L;
         Customer existingCustomer = createValidCustomer();
         existingCustomer.setId(customerId);
+        existingCustomer.setDemonym("American");
         Customer updatedCustomer = createValidCustomer();
         updatedCustomer.setEmail("new@example.com");
         updatedCustomer.setCountry("US");
 
         Mockito.when(customerRepository.findById(customerId)).thenReturn(existingCustomer);
-        Mockito.when(countryService.getDemonymByCountryCode("US")).thenReturn("American");
-        Mockito.doNothing().when(customerRepository).persist(any(Customer.class));
 
         Customer result = customerService.updateCustomer(customerId, updatedCustomer);
 
         assertNotNull(result);
         assertEquals("American", result.getDemonym());
         assertEquals("new@example.com", result.getEmail());
-        Mockito.verify(customerRepository).persist(any(Customer.class));
+        Mockito.verify(countryService, Mockito.never()).findDemonym(any());
+        // The customer is managed, so the change is written on flush without calling persist
+        Mockito.verify(customerRepository, Mockito.never()).persist(any(Customer.class));
+        Mockito.verify(customerRepository).flush();
     }
 
     // Tests successful deletion of an existing customer
     @Test
     void testDeleteExistingCustomerSuccess() {
         Long customerId = 1L;
-        Mockito.when(customerRepository.deleteById(customerId)).thenReturn(true);
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(customerId);
+        Mockito.when(customerRepository.findById(customerId)).thenReturn(existingCustomer);
 
         boolean result = customerService.deleteCustomer(customerId);
 
         assertTrue(result);
-        Mockito.verify(customerRepository, Mockito.times(1)).deleteById(customerId);
+        Mockito.verify(customerRepository, Mockito.times(1)).delete(existingCustomer);
+        Mockito.verify(countryStatsRepository).addCustomers("US", -1);
+    }
+
+    // Creating a customer counts it for its country
+    @Test
+    void testCreateCustomerUpdatesCountryStats() {
+        Mockito.when(countryService.getDemonymByCountryCode("US")).thenReturn("American");
+
+        customerService.createCustomer(createValidCustomer());
+
+        Mockito.verify(countryStatsRepository).addCustomers("US", 1);
+    }
+
+    // Moving a customer to another country moves its count
+    @Test
+    void testUpdateCustomerCountryMovesCountryStats() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        Customer updatedCustomer = createValidCustomer();
+        updatedCustomer.setCountry("DO");
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+        Mockito.when(countryService.findDemonym("DO")).thenReturn("Dominican");
+
+        customerService.updateCustomer(1L, updatedCustomer);
+
+        Mockito.verify(countryStatsRepository).addCustomers("US", -1);
+        Mockito.verify(countryStatsRepository).addCustomers("DO", 1);
     }
 
     // Simulates failure in fetching demonym from CountryService
@@ -163,6 +268,173 @@ class CustomerServiceTest {
         assertNotNull(exception);
     }
 
+    // Ensures the demonym lookup runs outside the transaction and the insert inside it
+    @Test
+    void testCreateCustomerResolvesDemonymOutsideTransaction() {
+        Customer mockCustomer = createValidCustomer();
+        AtomicInteger statusDuringLookup = new AtomicInteger(-1);
+        AtomicInteger statusDuringPersist = new AtomicInteger(-1);
+        Mockito.when(countryService.getDemonymByCountryCode("US")).thenAnswer(invocation -> {
+            statusDuringLookup.set(transactionManager.getStatus());
+            return "American";
+        });
+        Mockito.doAnswer(invocation -> {
+            statusDuringPersist.set(transactionManager.getStatus());
+            return null;
+        }).when(customerRepository).persist(any(Customer.class));
+
+        customerService.createCustomer(mockCustomer);
+
+        assertEquals(Status.STATUS_NO_TRANSACTION, statusDuringLookup.get());
+        assertEquals(Status.STATUS_ACTIVE, statusDuringPersist.get());
+    }
+
+    // Ensures updating a customer does not hold a transaction open across the demonym lookup
+    @Test
+    void testUpdateCustomerResolvesDemonymOutsideTransaction() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        AtomicInteger statusDuringLookup = new AtomicInteger(-1);
+        Customer updatedCustomer = createValidCustomer();
+        updatedCustomer.setCountry("DO");
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+        Mockito.when(countryService.findDemonym("DO")).thenAnswer(invocation -> {
+            statusDuringLookup.set(transactionManager.getStatus());
+            return "Dominican";
+        });
+
+        customerService.updateCustomer(1L, updatedCustomer);
 
+        assertEquals(Status.STATUS_NO_TRANSACTION, statusDuringLookup.get());
+    }
 
+    // A patch only touches the fields it names and keeps the demonym while the country stays the same
+    @Test
+    void testPatchCustomerChangesOnlySuppliedFields() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        existingCustomer.setDemonym("American");
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+
+        Customer result = customerService.patchCustomer(1L,
+                Json.createObjectBuilder().add("phone", "555-9999").add("country", "US").build(), null);
+
+        assertEquals("555-9999", result.getPhone());
+        assertEquals("123 Main St", result.getAddress());
+        assertEquals("American", result.getDemonym());
+        Mockito.verify(countryService, Mockito.never()).findDemonym(any());
+        Mockito.verify(countryStatsRepository, Mockito.never()).addCustomers(any(), Mockito.anyLong());
+    }
+
+    // A patch that changes the country resolves the new demonym and moves the country count
+    @Test
+    void testPatchCustomerCountryResolvesDemonym() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        existingCustomer.setDemonym("American");
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+        Mockito.when(countryService.findDemonym("DO")).thenReturn("Dominican");
+
+        Customer result = customerService.patchCustomer(1L, Json.createObjectBuilder().add("country", "DO").build(), null);
+
+        assertEquals("Dominican", result.getDemonym());
+        Mockito.verify(countryStatsRepository).addCustomers("US", -1);
+        Mockito.verify(countryStatsRepository).addCustomers("DO", 1);
+    }
+
+    // A patch that changes nothing skips the write transaction entirely
+    @Test
+    void testPatchCustomerWithoutChangesWritesNothing() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+
+        Customer result = customerService.patchCustomer(1L, Json.createObjectBuilder().add("email", "john.doe@example.com").build(), null);
+
+        assertSame(existingCustomer, result);
+        Mockito.verify(customerRepository, Mockito.times(1)).findById(1L);
+        Mockito.verify(customerRepository, Mockito.never()).flush();
+    }
+
+    // Fields managed by the service cannot be patched
+    @Test
+    void testPatchCustomerRejectsManagedFields() {
+        assertThrows(IllegalArgumentException.class, () -> customerService.patchCustomer(1L,
+                Json.createObjectBuilder().add("demonym", "Martian").build(), null));
+    }
+
+    // A blank country is reported by validation, before any lookup
+    @Test
+    void testPatchCustomerBlankCountryFailsValidationWithoutLookup() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+
+        ConstraintViolationException exception = assertThrows(ConstraintViolationException.class,
+                () -> customerService.patchCustomer(1L, Json.createObjectBuilder().add("country", " ").build(), null));
+
+        assertEquals(List.of("country"), violatedProperties(exception));
+        Mockito.verify(countryService, Mockito.never()).findDemonym(any());
+        Mockito.verify(customerRepository, Mockito.never()).flush();
+    }
+
+    // An unknown country code is reported as a violation on the country
+    @Test
+    void testUpdateCustomerUnknownCountryIsViolation() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        Customer updatedCustomer = createValidCustomer();
+        updatedCustomer.setCountry("ZZ");
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+        Mockito.when(countryService.findDemonym("ZZ")).thenReturn(null);
+
+        ConstraintViolationException exception = assertThrows(ConstraintViolationException.class,
+                () -> customerService.updateCustomer(1L, updatedCustomer));
+
+        assertEquals(List.of("country"), violatedProperties(exception));
+        Mockito.verify(customerRepository, Mockito.never()).flush();
+    }
+
+    // A lookup that cannot be made is not reported as an invalid customer
+    @Test
+    void testUpdateCustomerCountryLookupUnavailable() {
+        Customer existingCustomer = createValidCustomer();
+        existingCustomer.setId(1L);
+        Customer updatedCustomer = createValidCustomer();
+        updatedCustomer.setCountry("DO");
+        Mockito.when(customerRepository.findById(1L)).thenReturn(existingCustomer);
+        Mockito.when(countryService.findDemonym("DO"))
+                .thenThrow(new CountryLookupUnavailableException("Country API unavailable for DO", null));
+
+        assertThrows(CountryLookupUnavailableException.class, () -> customerService.updateCustomer(1L, updatedCustomer));
+        Mockito.verify(customerRepository, Mockito.never()).flush();
+    }
+
+    // Valid customers of a batch are created and invalid ones reported by position
+    @Test
+    void testCreateCustomersReportsPerItemErrors() {
+        Customer invalidEmail = createValidCustomer();
+        invalidEmail.setEmail("invalidEmail");
+        Customer unknownCountry = createValidCustomer();
+        unknownCountry.setCountry("ZZ");
+        List<Customer> batch = List.of(createValidCustomer(), invalidEmail, createValidCustomer(), unknownCountry);
+        Mockito.when(countryService.getDemonymByCountryCode("US")).thenReturn("American");
+        Mockito.when(countryService.getDemonymByCountryCode("ZZ")).thenReturn(null);
+        Mockito.when(customerRepository.getEntityManager()).thenReturn(Mockito.mock(EntityManager.class));
+
+        BatchResult result = customerService.createCustomers(batch);
+
+        assertEquals(4, result.ids().size());
+        assertEquals(List.of(1, 3), result.errors().stream().map(BatchResult.ItemError::index).toList());
+        Mockito.verify(customerRepository, Mockito.times(2)).persist(any(Customer.class));
+        Mockito.verify(customerRepository).flush();
+        // One lookup per distinct country, not per customer
+        Mockito.verify(countryService, Mockito.times(1)).getDemonymByCountryCode("US");
+    }
+
+    private static List<String> violatedProperties(ConstraintViolationException exception) {
+        return exception.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath().toString())
+                .toList();
+    }
 }
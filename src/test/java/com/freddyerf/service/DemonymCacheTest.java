@@ -0,0 +1,146 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.service.DemonymCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DemonymCacheTest {
+
+    private final DemonymCache cache = new DemonymCache(3, Duration.ofHours(1), Duration.ofHours(1));
+
+    // Second lookup of the same code is served from the cache
+    @Test
+    void testHitAfterFirstLoad() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("American", cache.get("US", code -> { calls.incrementAndGet(); return "American"; }));
+        assertEquals("American", cache.get("US", code -> { calls.incrementAndGet(); return "American"; }));
+
+        assertEquals(1, calls.get());
+        DemonymCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.loads());
+    }
+
+    // Unknown codes are remembered so they do not hit the API again
+    @Test
+    void testNegativeCaching() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertNull(cache.get("ZZ", code -> { calls.incrementAndGet(); return null; }));
+        assertNull(cache.get("ZZ", code -> { calls.incrementAndGet(); return null; }));
+
+        assertEquals(1, calls.get());
+    }
+
+    // Failed loads are not cached and are retried on the next lookup
+    @Test
+    void testFailureIsNotCached() throws Exception {
+        assertThrows(IOException.class, () -> cache.get("DO", code -> { throw new IOException("boom"); }));
+
+        assertEquals("Dominican", cache.get("DO", code -> "Dominican"));
+        assertEquals(1, cache.stats().loadFailures());
+    }
+
+    // Expired entries are loaded again
+    @Test
+    void testExpiredEntryIsReloaded() throws Exception {
+        DemonymCache expiring = new DemonymCache(3, Duration.ZERO, Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        expiring.get("US", code -> { calls.incrementAndGet(); return "American"; });
+        expiring.get("US", code -> { calls.incrementAndGet(); return "American"; });
+
+        assertEquals(2, calls.get());
+    }
+
+    // A failed refresh serves the expired value instead of failing the lookup
+    @Test
+    void testStaleValueServedWhenRefreshFails() throws Exception {
+        DemonymCache stale = new DemonymCache(3, Duration.ZERO, Duration.ZERO, Duration.ofHours(1));
+
+        assertEquals("American", stale.get("US", code -> "American"));
+        assertEquals("American", stale.get("US", code -> { throw new IOException("boom"); }));
+        assertEquals("American", stale.getAsync("US", code -> CompletableFuture.failedFuture(new IOException("boom"))).get());
+
+        assertEquals(2, stale.stats().staleHits());
+        assertEquals(2, stale.stats().loadFailures());
+    }
+
+    // Without a stale allowance a failed refresh still fails
+    @Test
+    void testNoStaleValueByDefault() throws Exception {
+        DemonymCache expiring = new DemonymCache(3, Duration.ZERO, Duration.ZERO);
+
+        expiring.get("US", code -> "American");
+
+        assertThrows(IOException.class, () -> expiring.get("US", code -> { throw new IOException("boom"); }));
+    }
+
+    // The cache never grows past its maximum size
+    @Test
+    void testEvictionKeepsCacheBounded() throws Exception {
+        for (String code : List.of("US", "DO", "MX", "CA", "FR")) {
+            cache.get(code, c -> c + "-demonym");
+        }
+
+        assertEquals(3, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    // A full cache evicts its oldest entries but keeps the other stale ones it can still serve
+    @Test
+    void testEvictionKeepsServableStaleEntries() throws Exception {
+        DemonymCache stale = new DemonymCache(2, Duration.ZERO, Duration.ZERO, Duration.ofHours(1));
+        stale.get("US", code -> "American");
+        stale.get("DO", code -> "Dominican");
+        stale.get("MX", code -> "Mexican");
+
+        assertEquals(2, stale.stats().size());
+        assertEquals(1, stale.stats().evictions());
+        assertEquals("Dominican", stale.get("DO", code -> { throw new IOException("boom"); }));
+    }
+
+    // Concurrent lookups of the same code trigger a single load
+    @Test
+    void testConcurrentLookupsShareOneLoad() throws Exception {
+        int threads = 50;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("US", code -> {
+                    calls.incrementAndGet();
+                    release.await();
+                    return "American";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("American", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.stats().loads());
+    }
+}
@@ -0,0 +1,56 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.service.DemonymTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DemonymTableTest {
+
+    private final DemonymTable bundled = DemonymTable.fromClasspath(DemonymTable.RESOURCE);
+
+    // The bundled table covers the ISO 3166-1 alpha-2 codes
+    @Test
+    void testBundledTableLoads() {
+        assertTrue(bundled.size() >= 245);
+        assertEquals("American", bundled.lookup("US"));
+        assertEquals("Dominican", bundled.lookup("DO"));
+    }
+
+    // Lookups ignore the case of the country code
+    @Test
+    void testLookupIgnoresCase() {
+        assertEquals("Mexican", bundled.lookup("mx"));
+        assertEquals("Mexican", bundled.lookup("Mx"));
+    }
+
+    // Anything that is not a known alpha-2 code is not found
+    @Test
+    void testUnknownCodes() {
+        assertNull(bundled.lookup(null));
+        assertNull(bundled.lookup(""));
+        assertNull(bundled.lookup("USA"));
+        assertNull(bundled.lookup("1A"));
+        assertNull(bundled.lookup("QQ"));
+    }
+
+    // Comments, blank lines and malformed entries are skipped
+    @Test
+    void testParseSkipsCommentsAndMalformedLines() throws Exception {
+        DemonymTable table = DemonymTable.parse(new StringReader("""
+                # header
+                
+                US\tAmerican
+                USA\tAmerican
+                FR
+                DE\t
+                CA\tCanadian
+                """));
+
+        assertEquals(2, table.size());
+        assertEquals("Canadian", table.lookup("CA"));
+        assertNull(table.lookup("DE"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.metrics.CustomerMetrics;
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.repository.CustomerRepository;
+import com.freddyerf.customer.service.CustomerSearchMode;
+import com.freddyerf.customer.service.CustomerService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads routed to the replica datasource, which in tests is the same database as the primary.
+ */
+@QuarkusTest
+@TestProfile(ReplicaRoutingTest.ReplicaProfile.class)
+class ReplicaRoutingTest {
+
+    public static class ReplicaProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("customer.read-replica.enabled", "true");
+        }
+    }
+
+    @Inject
+    CustomerService customerService;
+
+    @Inject
+    CustomerRepository customerRepository;
+
+    @Inject
+    CustomerMetrics metrics;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setFirstName("Replica");
+        customer.setLastName("Test");
+        customer.setEmail("replica.test." + System.nanoTime() + "@example.com");
+        customer.setAddress("1 Replica Road");
+        customer.setPhone("555-0000");
+        customer.setCountry("US");
+        customer = customerService.createCustomer(customer);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerService.deleteCustomer(customer.getId());
+    }
+
+    // Listings are read from the replica
+    @Test
+    void testListingsReadFromReplica() {
+        long pages = metrics.replicaFindPage.count();
+        long byCountry = metrics.replicaFindByCountry.count();
+
+        assertEquals(customer.getId(), customerService.getCustomers(customer.getId() - 1, 1).items().get(0).getId());
+        assertEquals(customer.getId(), customerService.getCustomersByCountry("US", customer.getId() - 1, 1).items().get(0).getId());
+
+        assertEquals(pages + 1, metrics.replicaFindPage.count());
+        assertEquals(byCountry + 1, metrics.replicaFindByCountry.count());
+    }
+
+    // Listings of selected fields are read from the replica, with the same values as the primary
+    @Test
+    void testFieldListingsReadFromReplica() {
+        long pages = metrics.replicaFindPageFields.count();
+        long byCountry = metrics.replicaFindByCountryFields.count();
+        Map<String, Object> expected = Map.of("id", customer.getId(), "email", customer.getEmail(), "version", 0L);
+
+        assertEquals(expected, customerService.getCustomerFields("email,version", customer.getId() - 1, 1).items().get(0));
+        assertEquals(expected, customerService.getCustomerFieldsByCountry("US", "email,version", customer.getId() - 1, 1).items().get(0));
+
+        assertEquals(pages + 1, metrics.replicaFindPageFields.count());
+        assertEquals(byCountry + 1, metrics.replicaFindByCountryFields.count());
+    }
+
+    // Prefix searches are read from the replica
+    @Test
+    void testSearchReadsFromReplica() {
+        long searches = metrics.replicaSearchByPrefix.count();
+
+        List<Customer> found = customerService.searchCustomers(customer.getEmail(), CustomerSearchMode.PREFIX, null, 10).items();
+
+        assertEquals(List.of(customer.getId()), found.stream().map(Customer::getId).toList());
+        assertEquals(searches + 1, metrics.replicaSearchByPrefix.count());
+    }
+
+    // A customer that is not cached is read from the replica, with the same data as the primary
+    @Test
+    void testUncachedLookupReadsFromReplica() {
+        customerRepository.getEntityManager().getEntityManagerFactory().getCache().evict(Customer.class, customer.getId());
+        long lookups = metrics.replicaFindById.count();
+
+        Customer found = customerService.getCustomerById(customer.getId());
+
+        assertEquals(lookups + 1, metrics.replicaFindById.count());
+        assertEquals(customer.getEmail(), found.getEmail());
+        assertEquals("American", found.getDemonym());
+        assertEquals(0L, found.getVersion());
+    }
+
+    // A customer this instance just wrote is served from the cache, not from a possibly lagging replica
+    @Test
+    void testRecentWriteIsReadFromPrimaryCache() {
+        customerService.getCustomerById(customer.getId());
+        long lookups = metrics.replicaFindById.count();
+
+        assertEquals(customer.getEmail(), customerService.getCustomerById(customer.getId()).getEmail());
+
+        assertEquals(lookups, metrics.replicaFindById.count());
+    }
+
+    // A customer this instance just deleted is looked up on the primary, not on a possibly lagging replica
+    @Test
+    void testRecentDeleteIsReadFromPrimary() {
+        customerRepository.getEntityManager().getEntityManagerFactory().getCache().evict(Customer.class, customer.getId());
+        long lookups = metrics.replicaFindById.count();
+
+        assertTrue(customerService.deleteCustomer(customer.getId()));
+
+        assertNull(customerService.getCustomerById(customer.getId()));
+        assertEquals(lookups, metrics.replicaFindById.count());
+    }
+}
@@ -0,0 +1,54 @@
+package com.freddyerf.service;
+
+import com.freddyerf.customer.model.Customer;
+import com.freddyerf.customer.model.Page;
+import com.freddyerf.customer.service.CustomerService;
+import com.freddyerf.customer.service.RequestExecutor;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs requests in VIRTUAL_THREADS mode, where the blocking work moves off the calling thread.
+ */
+@QuarkusTest
+@TestProfile(RequestExecutorTest.VirtualThreadsProfile.class)
+class RequestExecutorTest {
+
+    public static class VirtualThreadsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("customer.execution.mode", "VIRTUAL_THREADS");
+        }
+    }
+
+    @Inject
+    RequestExecutor requestExecutor;
+
+    @Inject
+    CustomerService customerService;
+
+    // Work runs on a virtual thread
+    @Test
+    void testWorkRunsOnVirtualThread() throws Exception {
+        Boolean virtual = requestExecutor.submit(() -> Thread.currentThread().isVirtual())
+                .toCompletableFuture().get();
+
+        assertTrue(virtual);
+    }
+
+    // The request context follows the work, so repository reads outside a transaction still work
+    @Test
+    void testRequestContextIsPropagated() throws Exception {
+        Page<Customer> page = requestExecutor.submit(() -> customerService.getCustomers(null, 1))
+                .toCompletableFuture().get();
+
+        assertNotNull(page.items());
+    }
+}